@@ -9,7 +9,7 @@ version = "0.0.1-SNAPSHOT"
 
 java {
 	toolchain {
-		languageVersion = JavaLanguageVersion.of(17)
+		languageVersion = JavaLanguageVersion.of(21)
 	}
 }
 
@@ -30,12 +30,15 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-data-redis")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.5")
 	implementation("org.springframework.session:spring-session-data-redis")
 	implementation("org.liquibase:liquibase-core")
 	implementation("org.springframework.session:spring-session-core")
 	implementation("org.mapstruct:mapstruct:1.5.5.Final")
 	implementation("io.minio:minio:8.5.13")
+	implementation("org.apache.commons:commons-fileupload2-jakarta-servlet6:2.0.0-M2")
 	implementation("com.fasterxml.jackson.core:jackson-databind")
 	annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
 	compileOnly("org.projectlombok:lombok")
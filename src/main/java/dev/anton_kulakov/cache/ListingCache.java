@@ -0,0 +1,9 @@
+package dev.anton_kulakov.cache;
+
+import dev.anton_kulakov.dto.ResourceListPage;
+
+import java.util.function.Supplier;
+
+public interface ListingCache {
+    ResourceListPage get(int userId, String folderPath, String queryKey, Supplier<ResourceListPage> loader);
+}
@@ -0,0 +1,119 @@
+package dev.anton_kulakov.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.util.PathProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.StatObjectResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+@Component
+@RequiredArgsConstructor
+public class MetadataCache {
+    private final MeterRegistry meterRegistry;
+    private final PathProcessor pathProcessor;
+
+    @Value("${cache.metadata.enabled}")
+    private boolean enabled;
+
+    @Value("${cache.metadata.max-entries}")
+    private long maxEntries;
+
+    @Value("${cache.metadata.time-to-live}")
+    private Duration timeToLive;
+
+    // Entries are keyed by the generation of their user, so a change drops all of them at once instead of scanning the keys
+    private final Map<Integer, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private Cache<Key, Boolean> fileExistence;
+    private Cache<Key, Boolean> folderExistence;
+    private Cache<Key, Optional<StatObjectResponse>> stats;
+
+    @PostConstruct
+    private void createCaches() {
+        fileExistence = createCache("metadata.file-existence");
+        folderExistence = createCache("metadata.folder-existence");
+        stats = createCache("metadata.stat");
+    }
+
+    public boolean isFileExists(String path, Predicate<String> loader) {
+        return enabled ? fileExistence.get(keyOf(path), key -> loader.test(path)) : loader.test(path);
+    }
+
+    public boolean isFolderExists(String path, Predicate<String> loader) {
+        return enabled ? folderExistence.get(keyOf(path), key -> loader.test(path)) : loader.test(path);
+    }
+
+    public CompletableFuture<StatObjectResponse> getStat(String path,
+                                                         Function<String, CompletableFuture<StatObjectResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(path);
+        }
+
+        Key key = keyOf(path);
+        Optional<StatObjectResponse> cachedStat = stats.getIfPresent(key);
+
+        if (cachedStat != null) {
+            return cachedStat.map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> CompletableFuture.failedFuture(new ResourceNotFoundException("Resource not found at path: " + path)));
+        }
+
+        return loader.apply(path).whenComplete((stat, error) -> {
+            if (error == null) {
+                stats.put(key, Optional.of(stat));
+            } else if (error instanceof ResourceNotFoundException || error.getCause() instanceof ResourceNotFoundException) {
+                stats.put(key, Optional.empty());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceChanged(ResourceChangedEvent event) {
+        generations.computeIfAbsent(event.getUserId(), userId -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        fileExistence.invalidateAll();
+        folderExistence.invalidateAll();
+        stats.invalidateAll();
+    }
+
+    private Key keyOf(String path) {
+        // Objects outside the user folders, such as deduplicated blobs, are never changed in place
+        if (!pathProcessor.isUserPath(path)) {
+            return new Key(0, path);
+        }
+
+        return new Key(generations.computeIfAbsent(pathProcessor.getUserId(path), userId -> new AtomicLong()).get(), path);
+    }
+
+    private <V> Cache<Key, V> createCache(String name) {
+        Cache<Key, V> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    private record Key(long generation, String path) {
+    }
+}
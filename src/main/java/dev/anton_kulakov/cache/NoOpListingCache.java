@@ -0,0 +1,16 @@
+package dev.anton_kulakov.cache;
+
+import dev.anton_kulakov.dto.ResourceListPage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpListingCache implements ListingCache {
+    @Override
+    public ResourceListPage get(int userId, String folderPath, String queryKey, Supplier<ResourceListPage> loader) {
+        return loader.get();
+    }
+}
@@ -0,0 +1,78 @@
+package dev.anton_kulakov.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.anton_kulakov.dto.ResourceListPage;
+import dev.anton_kulakov.event.RemoteResourceChangedEvent;
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class RedisListingCache implements ListingCache {
+    private static final String KEY_PREFIX = "listing:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cache.listing.time-to-live}")
+    private Duration timeToLive;
+
+    @Override
+    public ResourceListPage get(int userId, String folderPath, String queryKey, Supplier<ResourceListPage> loader) {
+        String key;
+
+        try {
+            String generation = redisTemplate.opsForValue().get(generationKey(userId));
+            key = KEY_PREFIX + userId + ":" + (generation == null ? "0" : generation) + ":" + folderPath + ":" + queryKey;
+            String cachedPage = redisTemplate.opsForValue().get(key);
+
+            if (cachedPage != null) {
+                return objectMapper.readValue(cachedPage, ResourceListPage.class);
+            }
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to read the listing of '{}' from Redis, loading it from the index", folderPath, e);
+            return loader.get();
+        }
+
+        ResourceListPage page = loader.get();
+
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(page), timeToLive);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to store the listing of '{}' in Redis", folderPath, e);
+        }
+
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceChanged(ResourceChangedEvent event) {
+        if (event instanceof RemoteResourceChangedEvent) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().increment(generationKey(event.getUserId()));
+        } catch (DataAccessException e) {
+            log.error("Failed to invalidate cached listings of user {}. They may stay stale for up to {}",
+                    event.getUserId(), timeToLive, e);
+        }
+    }
+
+    private static String generationKey(int userId) {
+        return KEY_PREFIX + userId + ":generation";
+    }
+}
@@ -0,0 +1,72 @@
+package dev.anton_kulakov.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.anton_kulakov.event.RemoteResourceChangedEvent;
+import dev.anton_kulakov.event.ResourceChangeMessage;
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class ResourceChangeBroadcaster implements MessageListener {
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${cache.redis.channel}")
+    private String channel;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceChanged(ResourceChangedEvent event) {
+        if (event instanceof RemoteResourceChangedEvent) {
+            return;
+        }
+
+        ResourceChangeMessage message = new ResourceChangeMessage(nodeId, event.getChangeType(), event.getUserId(),
+                event.getPath(), event.getSize());
+
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.error("Failed to broadcast the change of '{}'. Other nodes will serve it from their caches until they expire",
+                    event.getPath(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ResourceChangeMessage change;
+
+        try {
+            change = objectMapper.readValue(message.getBody(), ResourceChangeMessage.class);
+        } catch (IOException e) {
+            log.warn("Ignoring a malformed resource change message", e);
+            return;
+        }
+
+        if (nodeId.equals(change.getOrigin())) {
+            return;
+        }
+
+        eventPublisher.publishEvent(new RemoteResourceChangedEvent(change.getChangeType(), change.getUserId(),
+                change.getPath(), change.getSize()));
+    }
+}
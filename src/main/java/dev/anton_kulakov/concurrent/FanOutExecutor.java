@@ -0,0 +1,152 @@
+package dev.anton_kulakov.concurrent;
+
+import dev.anton_kulakov.exception.DeadlineExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FanOutExecutor {
+    private static final ThreadLocal<Instant> INHERITED_DEADLINE = new ThreadLocal<>();
+
+    private final ExecutorService fanOutVirtualThreadExecutor;
+
+    @Value("${fan-out.default-timeout}")
+    private Duration defaultTimeout;
+
+    public <T> void forEach(Iterable<T> items, int concurrency, Consumer<T> task) {
+        forEach(items, concurrency, defaultTimeout, task);
+    }
+
+    // A failure interrupts the running tasks and is rethrown once they have all finished. A missed deadline interrupts
+    // them too but throws right away, so a task that ignores interruption can still be running after this returns
+    public <T> void forEach(Iterable<T> items, int concurrency, Duration timeout, Consumer<T> task) {
+        Instant deadline = getDeadline(timeout);
+        Semaphore permits = new Semaphore(concurrency);
+        Set<Thread> runningTasks = ConcurrentHashMap.newKeySet();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        try {
+            for (T item : items) {
+                acquire(permits, 1, deadline);
+
+                if (firstFailure.get() != null) {
+                    permits.release();
+                    break;
+                }
+
+                fanOutVirtualThreadExecutor.execute(() -> run(item, task, deadline, permits, runningTasks, firstFailure));
+            }
+
+            acquire(permits, concurrency, deadline);
+        } catch (RuntimeException e) {
+            firstFailure.compareAndSet(null, e);
+            cancel(runningTasks);
+            throw e;
+        }
+
+        if (firstFailure.get() != null) {
+            throw rethrow(firstFailure.get());
+        }
+    }
+
+    public <T, R> List<R> map(List<T> items, int concurrency, Function<T, R> task) {
+        return map(items, concurrency, defaultTimeout, task);
+    }
+
+    public <T, R> List<R> map(List<T> items, int concurrency, Duration timeout, Function<T, R> task) {
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(items.size());
+        forEach(IntStream.range(0, items.size()).boxed().toList(), concurrency, timeout,
+                index -> results.set(index, task.apply(items.get(index))));
+
+        List<R> orderedResults = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            orderedResults.add(results.get(i));
+        }
+
+        return orderedResults;
+    }
+
+    private <T> void run(T item, Consumer<T> task, Instant deadline, Semaphore permits,
+                         Set<Thread> runningTasks, AtomicReference<Throwable> firstFailure) {
+        Thread currentThread = Thread.currentThread();
+        runningTasks.add(currentThread);
+        INHERITED_DEADLINE.set(deadline);
+
+        try {
+            if (firstFailure.get() == null) {
+                task.accept(item);
+            }
+        } catch (Throwable e) {
+            runningTasks.remove(currentThread);
+
+            if (firstFailure.compareAndSet(null, e)) {
+                cancel(runningTasks);
+            }
+        } finally {
+            runningTasks.remove(currentThread);
+            INHERITED_DEADLINE.remove();
+            permits.release();
+        }
+    }
+
+    private Instant getDeadline(Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+        Instant inheritedDeadline = INHERITED_DEADLINE.get();
+
+        return inheritedDeadline != null && inheritedDeadline.isBefore(deadline) ? inheritedDeadline : deadline;
+    }
+
+    private static void acquire(Semaphore permits, int count, Instant deadline) {
+        long remainingNanos = Math.max(Duration.between(Instant.now(), deadline).toNanos(), 0);
+
+        try {
+            if (!permits.tryAcquire(count, remainingNanos, TimeUnit.NANOSECONDS)) {
+                log.warn("Fan-out operation exceeded its deadline {}", deadline);
+                throw new DeadlineExceededException("The operation did not complete in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("The operation was cancelled");
+        }
+    }
+
+    private static void cancel(Set<Thread> runningTasks) {
+        for (Thread runningTask : runningTasks) {
+            runningTask.interrupt();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+
+        if (failure instanceof Error error) {
+            throw error;
+        }
+
+        return new CompletionException(failure);
+    }
+}
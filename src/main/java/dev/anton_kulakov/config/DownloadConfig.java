@@ -0,0 +1,15 @@
+package dev.anton_kulakov.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DownloadConfig {
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService zipPrefetchExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("zip-prefetch-", 0).factory());
+    }
+}
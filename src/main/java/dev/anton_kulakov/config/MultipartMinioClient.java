@@ -0,0 +1,74 @@
+package dev.anton_kulakov.config;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.ListPartsResult;
+import io.minio.ObjectWriteResponse;
+import io.minio.S3Escaper;
+import io.minio.messages.Part;
+
+import java.util.concurrent.CompletableFuture;
+
+public class MultipartMinioClient extends MinioAsyncClient {
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public CompletableFuture<String> startUpload(String bucketName, String objectName, Multimap<String, String> headers) {
+        try {
+            return createMultipartUploadAsync(bucketName, null, objectName, headers, null)
+                    .thenApply(response -> response.result().uploadId());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Part> sendPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] data, int length) {
+        try {
+            return uploadPartAsync(bucketName, null, objectName, data, length, uploadId, partNumber, null, null)
+                    .thenApply(response -> new Part(partNumber, response.etag()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<ListPartsResult> listUploadedParts(String bucketName, String objectName, String uploadId, int partNumberMarker) {
+        try {
+            return listPartsAsync(bucketName, null, objectName, null, partNumberMarker, uploadId, null, null)
+                    .thenApply(response -> response.result());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<ObjectWriteResponse> finishUpload(String bucketName, String objectName, String uploadId, Part[] parts, Multimap<String, String> headers) {
+        try {
+            return completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts, headers, null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Void> cancelUpload(String bucketName, String objectName, String uploadId) {
+        try {
+            return abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null)
+                    .thenApply(response -> null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Void> copyIfMatch(String bucketName, String source, String destination, String etag) {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("x-amz-copy-source", S3Escaper.encodePath("/" + bucketName + "/" + source));
+        headers.put("x-amz-copy-source-if-match", etag);
+
+        try {
+            return executePutAsync(bucketName, null, destination, headers, null, new byte[0], 0)
+                    .thenAccept(response -> response.close());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class OpenApiConfig {
     public static final String REGISTRATION_TAG = "Registration controller";
     public static final String RESOURCE_TAG = "Resource controller";
     public static final String FOLDER_TAG = "Folder controller";
+    public static final String UPLOAD_SESSION_TAG = "Upload session controller";
 
     @Bean
     public OpenAPI customOpenApi() {
@@ -51,6 +52,9 @@ public class OpenApiConfig {
                 .addTagsItem(new Tag()
                         .name(FOLDER_TAG)
                         .description("A controller for managing folder-specific features"))
+                .addTagsItem(new Tag()
+                        .name(UPLOAD_SESSION_TAG)
+                        .description("A controller for resumable chunked uploads"))
                 .components(new Components()
                         .addSecuritySchemes("cookieAuth", new SecurityScheme()
                                 .type(SecurityScheme.Type.APIKEY)
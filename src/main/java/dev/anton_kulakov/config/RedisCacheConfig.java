@@ -0,0 +1,24 @@
+package dev.anton_kulakov.config;
+
+import dev.anton_kulakov.cache.ResourceChangeBroadcaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class RedisCacheConfig {
+    @Bean
+    public RedisMessageListenerContainer resourceChangeListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         ResourceChangeBroadcaster broadcaster,
+                                                                         @Value("${cache.redis.channel}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster, new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -0,0 +1,16 @@
+package dev.anton_kulakov.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SearchConfig {
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService nameIndexExecutor() {
+        return Executors.newSingleThreadExecutor(new CustomizableThreadFactory("name-index-"));
+    }
+}
@@ -0,0 +1,23 @@
+package dev.anton_kulakov.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StreamingAwareMultipartResolver extends StandardServletMultipartResolver {
+    private final List<String> streamingPaths;
+
+    @Override
+    public boolean isMultipart(HttpServletRequest request) {
+        String pathWithinApplication = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (streamingPaths.contains(pathWithinApplication)) {
+            return false;
+        }
+
+        return super.isMultipart(request);
+    }
+}
@@ -2,8 +2,11 @@ package dev.anton_kulakov.config;
 
 import dev.anton_kulakov.config.resolver.FullPathArgumentResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,6 +15,8 @@ import java.util.List;
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+    public static final String STREAMING_UPLOAD_PATH = "/api/resource/stream";
+
     private final FullPathArgumentResolver fullPathArgumentResolver;
 
     @Override
@@ -19,6 +24,14 @@ public class WebConfig implements WebMvcConfigurer {
         resolvers.add(fullPathArgumentResolver);
     }
 
+    @Bean
+    public StandardServletMultipartResolver multipartResolver(MultipartProperties multipartProperties) {
+        StreamingAwareMultipartResolver multipartResolver = new StreamingAwareMultipartResolver(List.of(STREAMING_UPLOAD_PATH));
+        multipartResolver.setResolveLazily(multipartProperties.isResolveLazily());
+        multipartResolver.setStrictServletCompliance(multipartProperties.isStrictServletCompliance());
+        return multipartResolver;
+    }
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addViewController("/files/**").setViewName("forward:/index.html");
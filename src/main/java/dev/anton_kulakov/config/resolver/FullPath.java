@@ -9,4 +9,6 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface FullPath {
     String value();
+
+    boolean fromQueryString() default false;
 }
@@ -2,6 +2,7 @@ package dev.anton_kulakov.config.resolver;
 
 import dev.anton_kulakov.model.SecurityUser;
 import dev.anton_kulakov.util.PathProcessor;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
@@ -13,7 +14,10 @@ import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -43,7 +47,9 @@ public class FullPathArgumentResolver implements HandlerMethodArgumentResolver {
         }
 
         String paramName = annotation.value();
-        String pathFromRequest = webRequest.getParameter(paramName);
+        String pathFromRequest = annotation.fromQueryString()
+                ? getQueryParameter(webRequest, paramName)
+                : webRequest.getParameter(paramName);
 
         if (pathFromRequest == null) {
             return null;
@@ -74,6 +80,22 @@ public class FullPathArgumentResolver implements HandlerMethodArgumentResolver {
         return fullPathString;
     }
 
+    private static String getQueryParameter(NativeWebRequest webRequest, String paramName) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+
+        if (request == null || request.getQueryString() == null) {
+            return null;
+        }
+
+        String encodedValue = UriComponentsBuilder.newInstance()
+                .query(request.getQueryString())
+                .build()
+                .getQueryParams()
+                .getFirst(paramName);
+
+        return encodedValue == null ? null : URLDecoder.decode(encodedValue, StandardCharsets.UTF_8);
+    }
+
     @NotNull
     private static SecurityUser getSecurityUser() throws AccessDeniedException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
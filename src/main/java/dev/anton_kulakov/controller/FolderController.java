@@ -1,11 +1,17 @@
 package dev.anton_kulakov.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.anton_kulakov.config.OpenApiConfig;
 import dev.anton_kulakov.config.resolver.FullPath;
 import dev.anton_kulakov.dto.ErrorMessage;
 import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.dto.ResourceListPage;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import dev.anton_kulakov.model.ResourceTypeEnum;
 import dev.anton_kulakov.model.SecurityUser;
 import dev.anton_kulakov.service.FolderResourceService;
+import dev.anton_kulakov.streaming.NdjsonStreamingResponseBody;
+import dev.anton_kulakov.streaming.ResourceInfoSource;
 import dev.anton_kulakov.validator.ValidPath;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,39 +21,60 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
 @Slf4j
+@Validated
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/directory")
 @Tag(name = OpenApiConfig.FOLDER_TAG)
 public class FolderController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
     private final FolderResourceService folderResourceService;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Getting folder contents")
+    @Operation(
+            summary = "Getting folder contents",
+            description = "With Accept: application/x-ndjson the resources are streamed one JSON object per line as they are read.")
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "OK",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = ResourceInfoDto.class)
-                    )
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ResourceInfoDto.class)
+                            ),
+                            @Content(
+                                    mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ResourceInfoDto.class)
+                            )
+                    }
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "The path is invalid",
+                    description = "The path, the page size or the cursor is invalid",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorMessage.class),
@@ -115,12 +142,41 @@ public class FolderController {
             )
     })
     @GetMapping
-    public ResponseEntity<List<ResourceInfoDto>> getFolderContent(
+    public ResponseEntity<?> getFolderContent(
             @ValidPath
             @FullPath("path")
-            @Parameter(description = "The path to the folder containing the content the user is interested in", example = "folder/") String path) {
-        List<ResourceInfoDto> resources = folderResourceService.getContent(path);
-        return ResponseEntity.ok(resources);
+            @Parameter(description = "The path to the folder containing the content the user is interested in", example = "folder/") String path,
+            @RequestParam(required = false)
+            @Min(1)
+            @Max(1000)
+            @Parameter(description = "Maximum number of resources on a page, 1000 by default. An NDJSON stream returns the whole folder when omitted", example = "100") Integer limit,
+            @RequestParam(required = false)
+            @Parameter(description = "The opaque cursor from the X-Next-Cursor header of the previous page") String cursor,
+            @RequestParam(defaultValue = "NAME")
+            @Parameter(description = "The field the resources are sorted by") ResourceSortFieldEnum sort,
+            @RequestParam(defaultValue = "ASC")
+            @Parameter(description = "The sort direction") Sort.Direction direction,
+            @RequestParam(required = false)
+            @Parameter(description = "Return only resources of this type") ResourceTypeEnum type,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+            @Parameter(hidden = true) String accept) {
+        if (NdjsonStreamingResponseBody.isRequested(accept)) {
+            ResourceInfoSource source = folderResourceService.streamContent(path, type, sort, direction, cursor, limit);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(new NdjsonStreamingResponseBody(objectMapper, source));
+        }
+
+        // A JSON array is built in memory, so it is always paged, unlike the NDJSON stream
+        ResourceListPage page = folderResourceService.getContent(path, type, sort, direction, cursor,
+                limit == null ? DEFAULT_PAGE_SIZE : limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+
+        return response.body(page.getResources());
     }
 
     @Operation(summary = "Creating an empty folder")
@@ -1,16 +1,22 @@
 package dev.anton_kulakov.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.anton_kulakov.config.OpenApiConfig;
+import dev.anton_kulakov.config.WebConfig;
 import dev.anton_kulakov.config.resolver.FullPath;
-import dev.anton_kulakov.dto.DownloadResponse;
 import dev.anton_kulakov.dto.ErrorMessage;
+import dev.anton_kulakov.dto.PresignedUrlDto;
 import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.model.CompressionLevelEnum;
 import dev.anton_kulakov.model.SecurityUser;
 import dev.anton_kulakov.service.SearchService;
+import dev.anton_kulakov.service.StreamingUploadService;
 import dev.anton_kulakov.service.UploadService;
 import dev.anton_kulakov.service.ResourceServiceFactory;
 import dev.anton_kulakov.service.ResourceServiceInterface;
 import dev.anton_kulakov.service.DownloadService;
+import dev.anton_kulakov.streaming.NdjsonStreamingResponseBody;
+import dev.anton_kulakov.streaming.ResourceInfoSource;
 import dev.anton_kulakov.validator.ValidPath;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,10 +26,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -32,6 +43,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -43,6 +55,8 @@ public class ResourceController {
     private final SearchService searchService;
     private final DownloadService downloadService;
     private final UploadService uploadService;
+    private final StreamingUploadService streamingUploadService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Getting information about a file or folder",
@@ -142,9 +156,17 @@ public class ResourceController {
                     description = "OK",
                     content = {
                             @Content(mediaType = "application/octet-stream"),
-                            @Content(mediaType = "application/zip")
+                            @Content(mediaType = "application/zip"),
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = PresignedUrlDto.class)
+                            )
                     }
             ),
+            @ApiResponse(
+                    responseCode = "302",
+                    description = "Redirect to a short-lived presigned URL of the file in the object storage"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "The path is invalid",
@@ -214,15 +236,21 @@ public class ResourceController {
                     ))
     })
     @GetMapping("/api/resource/download")
-    public ResponseEntity<StreamingResponseBody> download(
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> download(
             @FullPath("path")
             @ValidPath
-            @Parameter(description = "The path to the folder or file you want to download", example = "folder/file.txt") String path) {
-        DownloadResponse downloadResponse = downloadService.prepareDownloadResponse(path);
-
-        return ResponseEntity.ok()
-                .contentType(downloadResponse.getContentType())
-                .body(downloadResponse.getResponseBody());
+            @Parameter(description = "The path to the folder or file you want to download", example = "folder/file.txt") String path,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false)
+            @Parameter(description = "Byte ranges of the file to download", example = "bytes=0-1023") String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false)
+            @Parameter(description = "ETag or Last-Modified date the ranges are valid for") String ifRange,
+            @RequestParam(value = "compression", defaultValue = "DEFAULT")
+            @Parameter(description = "Compression level of a folder archive. FAST saves CPU, SMALL saves bandwidth, NONE stores files as is and reports the exact archive size", example = "FAST") CompressionLevelEnum compression) {
+        return downloadService.prepareDownloadResponse(path, range, ifRange, compression)
+                .thenApply(downloadResponse -> ResponseEntity.status(downloadResponse.getStatus())
+                        .headers(downloadResponse.getHeaders())
+                        .contentType(downloadResponse.getContentType())
+                        .body(downloadResponse.getResponseBody()));
     }
 
     @Operation(summary = "Deleting a folder or a file")
@@ -420,15 +448,24 @@ public class ResourceController {
         return ResponseEntity.ok().body(resource);
     }
 
-    @Operation(summary = "Search for files and folders that match the user's search criteria")
+    @Operation(
+            summary = "Search for files and folders that match the user's search criteria",
+            description = "Results are ranked: exact name matches first, then names starting with the query, then by similarity. "
+                    + "With Accept: application/x-ndjson the results are streamed one JSON object per line and paging is replaced by the limit.")
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "OK",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = ResourceInfoDto.class)
-                    )
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ResourceInfoDto.class)
+                            ),
+                            @Content(
+                                    mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ResourceInfoDto.class)
+                            )
+                    }
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -482,11 +519,30 @@ public class ResourceController {
                     ))
     })
     @GetMapping("/api/resource/search")
-    public ResponseEntity<List<ResourceInfoDto>> search(
+    public ResponseEntity<?> search(
             @AuthenticationPrincipal SecurityUser securityUser,
             @RequestParam
-            @Parameter(description = "The name of the folder or file the user is searching for", example = "picture") String query) {
-        List<ResourceInfoDto> resources = searchService.search(securityUser.getUserId(), query.toLowerCase());
+            @Parameter(description = "The name of the folder or file the user is searching for", example = "picture") String query,
+            @RequestParam(defaultValue = "0")
+            @Min(0)
+            @Parameter(description = "Zero-based page of the ranked results", example = "0") int page,
+            @RequestParam(defaultValue = "50")
+            @Min(1)
+            @Max(200)
+            @Parameter(description = "Maximum number of results on a page", example = "50") int size,
+            @RequestParam(required = false)
+            @Min(1)
+            @Parameter(description = "Maximum number of results streamed in NDJSON mode. All matches are streamed when omitted", example = "1000") Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+            @Parameter(hidden = true) String accept) {
+        if (NdjsonStreamingResponseBody.isRequested(accept)) {
+            ResourceInfoSource source = searchService.streamSearch(securityUser.getUserId(), query.toLowerCase(), limit);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(new NdjsonStreamingResponseBody(objectMapper, source));
+        }
+
+        List<ResourceInfoDto> resources = searchService.search(securityUser.getUserId(), query.toLowerCase(), page, size);
         return ResponseEntity.ok().body(resources);
     }
 
@@ -569,15 +625,109 @@ public class ResourceController {
                     ))
     })
     @PostMapping("/api/resource")
-    public ResponseEntity<List<ResourceInfoDto>> upload(
+    public CompletableFuture<ResponseEntity<List<ResourceInfoDto>>> upload(
             @FullPath("path")
             @ValidPath
             @Parameter(description = "The path to the folder where the files or the other folder will be uploaded", example = "folder/") String path,
             @Size(min = 1)
             @RequestParam("object")
-            @Parameter(description = "list of files to download") List<MultipartFile> files) {
+            @Parameter(description = "list of files to download") List<MultipartFile> files,
+            @RequestParam(value = "atomic", defaultValue = "false")
+            @Parameter(description = "Remove the files uploaded by this request if any of them fails", example = "true") boolean atomic) {
+        return uploadService.upload(path, files, atomic)
+                .thenApply(resources -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .body(resources));
+    }
+
+    @Operation(
+            summary = "Streaming upload of folders and files to the cloud storage",
+            description = "Accepts the same multipart body as the regular upload, but parses it incrementally and pipes every file straight into the storage without spooling it to the server's disk. The path must be passed in the query string.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Created",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ResourceInfoDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request body",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "There is a validation error. The request body is invalid"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The resource already exists at the destination path",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The resource already exists at the destination path"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    ))
+    })
+    @PostMapping(WebConfig.STREAMING_UPLOAD_PATH)
+    public ResponseEntity<List<ResourceInfoDto>> uploadStreaming(
+            @FullPath(value = "path", fromQueryString = true)
+            @ValidPath
+            @Parameter(description = "The path to the folder where the files or the other folder will be uploaded", example = "folder/") String path,
+            HttpServletRequest request) {
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(uploadService.upload(path, files));
+                .body(streamingUploadService.upload(path, request));
     }
 }
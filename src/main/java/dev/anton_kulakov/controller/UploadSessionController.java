@@ -0,0 +1,580 @@
+package dev.anton_kulakov.controller;
+
+import dev.anton_kulakov.config.OpenApiConfig;
+import dev.anton_kulakov.config.resolver.FullPath;
+import dev.anton_kulakov.dto.ErrorMessage;
+import dev.anton_kulakov.dto.PresignedUrlDto;
+import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.dto.UploadSessionDto;
+import dev.anton_kulakov.model.SecurityUser;
+import dev.anton_kulakov.service.UploadSessionService;
+import dev.anton_kulakov.validator.ValidPath;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Validated
+@RequestMapping("/api/upload-session")
+@Tag(name = OpenApiConfig.UPLOAD_SESSION_TAG)
+public class UploadSessionController {
+    private final UploadSessionService uploadSessionService;
+
+    @Operation(
+            summary = "Starting a resumable upload",
+            description = "Creates an upload session for a single file. Chunks of the file can then be uploaded in any order and in parallel, and the session is committed once all of them are stored.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Created",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UploadSessionDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The path is invalid",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The path of a resumable upload must point to a file"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The file already exists at the destination path",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The file already exists at the destination path"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> create(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @FullPath("path")
+            @ValidPath
+            @Parameter(description = "The path of the file that will be uploaded", example = "folder/video.mp4") String path,
+            @RequestParam(required = false)
+            @Parameter(description = "Content type of the file", example = "video/mp4") String contentType) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(uploadSessionService.create(path, contentType, securityUser.getUserId()));
+    }
+
+    @Operation(
+            summary = "Getting the state of a resumable upload",
+            description = "Lists the chunks that have already been stored, so an interrupted upload can be resumed from where it stopped.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "OK",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UploadSessionDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Upload session not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session could not be found"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDto> get(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @PathVariable
+            @Parameter(description = "Upload session identifier") UUID id) {
+        return ResponseEntity.ok(uploadSessionService.get(id, securityUser.getUserId()));
+    }
+
+    @Operation(
+            summary = "Uploading a chunk of a resumable upload",
+            description = "Stores the request body as the chunk with the given number. Uploading a chunk with the same number again replaces it. All chunks except the last one must be at least 5 MB.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "The chunk is stored"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid chunk number or size",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The part size must be between 1 and 67108864 bytes"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Upload session not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session could not be found"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @PutMapping("/{id}/parts/{partNumber}")
+    public ResponseEntity<Void> uploadPart(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @PathVariable
+            @Parameter(description = "Upload session identifier") UUID id,
+            @PathVariable
+            @Parameter(description = "Chunk number starting from 1", example = "1") int partNumber,
+            @RequestHeader(HttpHeaders.CONTENT_LENGTH) long contentLength,
+            HttpServletRequest request) throws IOException {
+        uploadSessionService.uploadPart(id, partNumber, request.getInputStream(), contentLength, securityUser.getUserId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Getting a presigned URL for a chunk of a resumable upload",
+            description = "Returns a short-lived URL the client can PUT the chunk to directly in the object storage. The ETag of the stored chunk is checked when the upload is committed.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "OK",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PresignedUrlDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid chunk number",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The part number must be between 1 and 10000"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Upload session not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session could not be found"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @GetMapping("/{id}/parts/{partNumber}/presigned-url")
+    public ResponseEntity<PresignedUrlDto> getPresignedPartUrl(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @PathVariable
+            @Parameter(description = "Upload session identifier") UUID id,
+            @PathVariable
+            @Parameter(description = "Chunk number starting from 1", example = "1") int partNumber) {
+        return ResponseEntity.ok().body(uploadSessionService.getPresignedPartUrl(id, partNumber, securityUser.getUserId()));
+    }
+
+    @Operation(
+            summary = "Committing a resumable upload",
+            description = "Assembles the chunks stored in the object storage, including the ones uploaded through presigned URLs, in the order of their numbers into the final file.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Created",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ResourceInfoDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The uploaded chunks can't be assembled into a file",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session doesn't contain any parts"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Upload session not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session could not be found"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The file already exists at the destination path",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Resource already exists: folder/video.mp4"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "413",
+                    description = "The file doesn't fit into the storage quota",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Not enough storage space: 10737418240 of 10737418240 bytes are used, 1048576 more are required"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<ResourceInfoDto> commit(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @PathVariable
+            @Parameter(description = "Upload session identifier") UUID id) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(uploadSessionService.commit(id, securityUser.getUserId()));
+    }
+
+    @Operation(summary = "Aborting a resumable upload")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "The upload session is aborted"
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "User is not authenticated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "Invalid credentials"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Upload session not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "The upload session could not be found"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorMessage.class),
+                            examples = {
+                                    @ExampleObject(
+                                            value = """
+                                                    {
+                                                        "message": "We're sorry, but an unexpected error has occurred. Please try again later"
+                                                    }
+                                                    """
+                                    )
+                            }
+                    )
+            )
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abort(
+            @AuthenticationPrincipal SecurityUser securityUser,
+            @PathVariable
+            @Parameter(description = "Upload session identifier") UUID id) {
+        uploadSessionService.abort(id, securityUser.getUserId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
@@ -14,4 +16,6 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 public class DownloadResponse {
     private StreamingResponseBody responseBody;
     private MediaType contentType;
+    private HttpStatus status;
+    private HttpHeaders headers;
 }
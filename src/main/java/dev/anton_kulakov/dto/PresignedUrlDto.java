@@ -0,0 +1,20 @@
+package dev.anton_kulakov.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "DTO for a short-lived URL that gives direct access to a file in the object storage")
+public class PresignedUrlDto {
+    @Schema(description = "The presigned URL", example = "http://localhost:9000/user-files/user-1-files/file.txt?X-Amz-Signature=...")
+    private String url;
+
+    @Schema(description = "Number of seconds the URL stays valid for", example = "300")
+    private long expiresIn;
+}
@@ -0,0 +1,17 @@
+package dev.anton_kulakov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceListPage {
+    private List<ResourceInfoDto> resources;
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package dev.anton_kulakov.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "DTO for displaying the state of a resumable upload session")
+public class UploadSessionDto {
+    @Schema(description = "Session identifier", example = "3f0c3a56-5b8e-4bd4-9d67-9b1c1a0a9e42")
+    private UUID id;
+
+    @Schema(description = "The path of the file being uploaded", example = "folder/video.mp4")
+    private String path;
+
+    @Schema(description = "The largest accepted chunk size in bytes", example = "67108864")
+    private long maxPartSize;
+
+    @Schema(description = "Numbers of the chunks that have already been uploaded", example = "[1, 2, 4]")
+    private List<Integer> uploadedParts;
+}
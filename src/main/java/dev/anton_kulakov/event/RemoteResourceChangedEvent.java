@@ -0,0 +1,7 @@
+package dev.anton_kulakov.event;
+
+public class RemoteResourceChangedEvent extends ResourceChangedEvent {
+    public RemoteResourceChangedEvent(ChangeType changeType, int userId, String path, Long size) {
+        super(changeType, userId, path, size);
+    }
+}
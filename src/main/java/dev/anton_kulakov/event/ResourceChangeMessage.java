@@ -0,0 +1,18 @@
+package dev.anton_kulakov.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceChangeMessage {
+    private String origin;
+    private ResourceChangedEvent.ChangeType changeType;
+    private int userId;
+    private String path;
+    private Long size;
+}
@@ -0,0 +1,22 @@
+package dev.anton_kulakov.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ResourceChangedEvent {
+    private final ChangeType changeType;
+    private final int userId;
+    private final String path;
+    private final Long size;
+
+    public enum ChangeType {
+        FILE_ADDED,
+        FOLDER_ADDED,
+        FILE_REMOVED,
+        FOLDER_REMOVED,
+        MOVED,
+        REINDEXED
+    }
+}
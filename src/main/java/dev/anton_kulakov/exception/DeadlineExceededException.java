@@ -0,0 +1,7 @@
+package dev.anton_kulakov.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
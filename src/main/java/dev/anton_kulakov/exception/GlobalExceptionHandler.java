@@ -3,13 +3,17 @@ package dev.anton_kulakov.exception;
 import dev.anton_kulakov.dto.ErrorMessage;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
 
@@ -45,7 +49,9 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler({
             MissingServletRequestParameterException.class,
-            MissingServletRequestPartException.class})
+            MissingServletRequestPartException.class,
+            MissingRequestHeaderException.class,
+            MethodArgumentTypeMismatchException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessage handleMissingServletRequestParameterException(Exception e) {
         return new ErrorMessage("One or more required parameters are missing " + e);
@@ -63,6 +69,18 @@ public class GlobalExceptionHandler {
         return new ErrorMessage(e.getMessage());
     }
 
+    @ExceptionHandler(InvalidUploadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorMessage handleInvalidUploadRequestException(InvalidUploadRequestException e) {
+        return new ErrorMessage(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorMessage handleInvalidCursorException(InvalidCursorException e) {
+        return new ErrorMessage(e.getMessage());
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessage handleConstraintViolationException(ConstraintViolationException e) {
@@ -81,6 +99,12 @@ public class GlobalExceptionHandler {
         return new ErrorMessage(e.getMessage());
     }
 
+    @ExceptionHandler(StorageQuotaExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public ErrorMessage handleStorageQuotaExceededException(StorageQuotaExceededException e) {
+        return new ErrorMessage(e.getMessage());
+    }
+
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessage handleMaxUploadSizeExceededException(MaxUploadSizeExceededException e) {
@@ -88,6 +112,26 @@ public class GlobalExceptionHandler {
         return new ErrorMessage("File or folder size exceeds limit " + maxUploadSize);
     }
 
+    @ExceptionHandler(RangeNotSatisfiableException.class)
+    public ResponseEntity<ErrorMessage> handleRangeNotSatisfiableException(RangeNotSatisfiableException e) {
+        return ResponseEntity
+                .status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getResourceSize())
+                .body(new ErrorMessage(e.getMessage()));
+    }
+
+    @ExceptionHandler(PartialMoveException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ErrorMessage handlePartialMoveException(PartialMoveException e) {
+        return new ErrorMessage(e.getMessage());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorMessage handleDeadlineExceededException(DeadlineExceededException e) {
+        return new ErrorMessage(e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorMessage handleDefaultException(Exception e) {
@@ -0,0 +1,7 @@
+package dev.anton_kulakov.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package dev.anton_kulakov.exception;
+
+public class InvalidUploadRequestException extends RuntimeException {
+    public InvalidUploadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.anton_kulakov.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class PartialMoveException extends RuntimeException {
+    private final List<String> notRemovedSources;
+
+    public PartialMoveException(String message, List<String> notRemovedSources) {
+        super(message);
+        this.notRemovedSources = notRemovedSources;
+    }
+}
@@ -0,0 +1,13 @@
+package dev.anton_kulakov.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RangeNotSatisfiableException extends RuntimeException {
+    private final long resourceSize;
+
+    public RangeNotSatisfiableException(String message, long resourceSize) {
+        super(message);
+        this.resourceSize = resourceSize;
+    }
+}
@@ -0,0 +1,7 @@
+package dev.anton_kulakov.exception;
+
+public class StorageQuotaExceededException extends RuntimeException {
+    public StorageQuotaExceededException(String message) {
+        super(message);
+    }
+}
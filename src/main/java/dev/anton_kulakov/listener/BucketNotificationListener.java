@@ -0,0 +1,210 @@
+package dev.anton_kulakov.listener;
+
+import dev.anton_kulakov.concurrent.FanOutExecutor;
+import dev.anton_kulakov.repository.ResourceIndexStateRepository;
+import dev.anton_kulakov.service.ResourceIndexService;
+import dev.anton_kulakov.util.PathProcessor;
+import io.minio.CloseableIterator;
+import io.minio.ListenBucketNotificationArgs;
+import io.minio.MinioClient;
+import io.minio.Result;
+import io.minio.messages.Event;
+import io.minio.messages.NotificationRecords;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minio.notifications.enabled", havingValue = "true")
+public class BucketNotificationListener {
+    private static final String OBJECT_CREATED_EVENT = "s3:ObjectCreated:";
+    private static final String OBJECT_REMOVED_EVENT = "s3:ObjectRemoved:";
+    private static final int RECONCILE_CONCURRENCY = 4;
+    private static final long RECONCILE_LOCK_KEY = 0x7265636f6e63696cL;
+
+    private final MinioClient minioClient;
+    private final ResourceIndexService resourceIndexService;
+    private final PathProcessor pathProcessor;
+    private final FanOutExecutor fanOutExecutor;
+    private final ResourceIndexStateRepository resourceIndexStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService fanOutVirtualThreadExecutor;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    @Value("${minio.notifications.initial-backoff}")
+    private Duration initialBackoff;
+
+    @Value("${minio.notifications.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${minio.notifications.reconcile-timeout}")
+    private Duration reconcileTimeout;
+
+    private volatile boolean running;
+    private volatile CloseableIterator<Result<NotificationRecords>> currentRecords;
+    private Thread listenerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "bucket-notifications");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeCurrentRecords();
+
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        Duration backoff = initialBackoff;
+        boolean hasMissedEvents = false;
+
+        while (running) {
+            try (CloseableIterator<Result<NotificationRecords>> records = minioClient.listenBucketNotification(
+                    ListenBucketNotificationArgs.builder()
+                            .bucket(bucketName)
+                            .prefix("")
+                            .suffix("")
+                            .events(new String[]{OBJECT_CREATED_EVENT + "*", OBJECT_REMOVED_EVENT + "*"})
+                            .build())) {
+                currentRecords = records;
+                log.info("Listening to notifications of bucket '{}'", bucketName);
+
+                if (hasMissedEvents) {
+                    fanOutVirtualThreadExecutor.execute(this::reconcileExclusively);
+                }
+
+                hasMissedEvents = true;
+
+                while (running && records.hasNext()) {
+                    apply(records.next().get());
+                    backoff = initialBackoff;
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Notification stream of bucket '{}' failed, reconnecting in {}", bucketName, backoff, e);
+            } finally {
+                currentRecords = null;
+            }
+
+            if (!sleep(backoff)) {
+                return;
+            }
+
+            Duration doubledBackoff = backoff.multipliedBy(2);
+            backoff = doubledBackoff.compareTo(maxBackoff) > 0 ? maxBackoff : doubledBackoff;
+        }
+    }
+
+    private void reconcileExclusively() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!resourceIndexStateRepository.tryTransactionLock(RECONCILE_LOCK_KEY)) {
+                    log.info("Another node is reconciling the index with bucket '{}', skipping", bucketName);
+                    return;
+                }
+
+                reconcile();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile the index with bucket '{}'", bucketName, e);
+        }
+    }
+
+    private void reconcile() {
+        try {
+            fanOutExecutor.forEach(resourceIndexService.getIndexedUserIds(), RECONCILE_CONCURRENCY, reconcileTimeout,
+                    userId -> {
+                        if (!running) {
+                            return;
+                        }
+
+                        try {
+                            resourceIndexService.reconcile(userId);
+                        } catch (Exception e) {
+                            log.error("Failed to reconcile the index of user {} with bucket '{}'", userId, bucketName, e);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile the index with bucket '{}'", bucketName, e);
+        }
+    }
+
+    private void apply(NotificationRecords notificationRecords) {
+        for (Event event : notificationRecords.events()) {
+            String eventType = event.eventType().toString();
+            String objectName = URLDecoder.decode(event.objectName(), StandardCharsets.UTF_8);
+
+            if (!pathProcessor.isUserPath(objectName)) {
+                continue;
+            }
+
+            boolean isCreated = eventType.startsWith(OBJECT_CREATED_EVENT);
+
+            try {
+                if (objectName.endsWith("/")) {
+                    if (isCreated) {
+                        resourceIndexService.syncFolder(objectName);
+                    } else {
+                        resourceIndexService.syncRemovedFolder(objectName);
+                    }
+                } else if (isCreated) {
+                    resourceIndexService.syncFile(objectName, event.etag(), event.objectSize());
+                } else {
+                    resourceIndexService.syncRemovedFile(objectName);
+                }
+            } catch (Exception e) {
+                log.error("Failed to apply the {} notification for '{}'", eventType, objectName, e);
+            }
+        }
+    }
+
+    private boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void closeCurrentRecords() {
+        CloseableIterator<Result<NotificationRecords>> records = currentRecords;
+
+        if (records == null) {
+            return;
+        }
+
+        try {
+            records.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the notification stream of bucket '{}'", bucketName, e);
+        }
+    }
+}
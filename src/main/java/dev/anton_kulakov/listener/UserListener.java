@@ -2,6 +2,7 @@ package dev.anton_kulakov.listener;
 
 import dev.anton_kulakov.model.User;
 import dev.anton_kulakov.service.MinioService;
+import dev.anton_kulakov.service.ResourceIndexService;
 import jakarta.persistence.PostPersist;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -10,9 +11,11 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class UserListener {
     private final MinioService minioService;
+    private final ResourceIndexService resourceIndexService;
 
     @PostPersist
     public void postPersist(User user) {
         minioService.createUserRootFolder(user.getId());
+        resourceIndexService.addUserRootFolder(user.getId());
     }
 }
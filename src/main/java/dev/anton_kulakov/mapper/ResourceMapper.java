@@ -1,6 +1,7 @@
 package dev.anton_kulakov.mapper;
 
 import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.model.ResourceMetadata;
 import dev.anton_kulakov.model.ResourceTypeEnum;
 import dev.anton_kulakov.util.PathProcessor;
 import io.minio.StatObjectResponse;
@@ -17,10 +18,22 @@ public class ResourceMapper {
         return createFileInfoDto(statObjectResponse.object(), statObjectResponse.size());
     }
 
+    public ResourceInfoDto toFileInfoDto(String objectName, long size) {
+        return createFileInfoDto(objectName, size);
+    }
+
     public ResourceInfoDto toFileInfoDto(Item item) {
         return createFileInfoDto(item.objectName(), item.size());
     }
 
+    public ResourceInfoDto toInfoDto(ResourceMetadata resource) {
+        if (resource.getType() == ResourceTypeEnum.DIRECTORY) {
+            return toFolderInfoDto(resource.getPath());
+        }
+
+        return createFileInfoDto(resource.getPath(), resource.getSize());
+    }
+
     public ResourceInfoDto toFolderInfoDto(String fullFolderPath) {
         String pathWithoutRootFolder = pathProcessor.getPathWithoutRootFolder(fullFolderPath);
         ResourceInfoDto resourceInfoDto = new ResourceInfoDto();
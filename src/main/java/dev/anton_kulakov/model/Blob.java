@@ -0,0 +1,23 @@
+package dev.anton_kulakov.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "Blobs")
+@Setter
+@Getter
+@NoArgsConstructor
+public class Blob {
+    @Id
+    private String hash;
+    private Long size;
+    private Integer refCount;
+    private Instant unreferencedAt;
+}
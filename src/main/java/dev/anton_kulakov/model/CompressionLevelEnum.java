@@ -0,0 +1,19 @@
+package dev.anton_kulakov.model;
+
+import lombok.Getter;
+
+import java.util.zip.Deflater;
+
+@Getter
+public enum CompressionLevelEnum {
+    NONE(Deflater.NO_COMPRESSION),
+    FAST(Deflater.BEST_SPEED),
+    DEFAULT(Deflater.DEFAULT_COMPRESSION),
+    SMALL(Deflater.BEST_COMPRESSION);
+
+    private final int deflaterLevel;
+
+    CompressionLevelEnum(int deflaterLevel) {
+        this.deflaterLevel = deflaterLevel;
+    }
+}
@@ -0,0 +1,7 @@
+package dev.anton_kulakov.model;
+
+public enum DownloadModeEnum {
+    PROXY,
+    REDIRECT,
+    PRESIGNED_URL
+}
@@ -0,0 +1,21 @@
+package dev.anton_kulakov.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "Resource_index_states")
+@Setter
+@Getter
+@NoArgsConstructor
+public class ResourceIndexState {
+    @Id
+    private Integer userId;
+    private Instant indexedAt;
+}
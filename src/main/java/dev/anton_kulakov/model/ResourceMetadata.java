@@ -0,0 +1,30 @@
+package dev.anton_kulakov.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "Resources")
+@Setter
+@Getter
+@NoArgsConstructor
+public class ResourceMetadata {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Integer userId;
+    private String path;
+    private String parentPath;
+    private String name;
+    private Long size;
+    private String etag;
+    private Instant modifiedAt;
+    private String blobHash;
+
+    @Enumerated(EnumType.STRING)
+    private ResourceTypeEnum type;
+}
@@ -0,0 +1,7 @@
+package dev.anton_kulakov.model;
+
+public enum ResourceSortFieldEnum {
+    NAME,
+    SIZE,
+    MODIFIED
+}
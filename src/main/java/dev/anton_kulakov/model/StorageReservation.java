@@ -0,0 +1,24 @@
+package dev.anton_kulakov.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "Storage_reservations")
+@Setter
+@Getter
+@NoArgsConstructor
+public class StorageReservation {
+    @Id
+    private UUID id;
+    private Integer userId;
+    private Long size;
+    private Instant expiresAt;
+}
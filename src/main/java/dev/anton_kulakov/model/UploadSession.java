@@ -0,0 +1,27 @@
+package dev.anton_kulakov.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "Upload_sessions")
+@Setter
+@Getter
+@NoArgsConstructor
+public class UploadSession {
+    @Id
+    private UUID id;
+    private Integer userId;
+    private String objectPath;
+    private String uploadId;
+    private String contentType;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,46 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.Blob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BlobRepository extends JpaRepository<Blob, String> {
+    @Modifying
+    @Query(value = """
+            insert into blobs (hash, size, ref_count)
+            values (:hash, :size, 1)
+            on conflict (hash) do update
+            set ref_count = blobs.ref_count + 1, unreferenced_at = null
+            """, nativeQuery = true)
+    void acquire(@Param("hash") String hash, @Param("size") long size);
+
+    @Query("select b.refCount from Blob b where b.hash = :hash")
+    int findRefCount(@Param("hash") String hash);
+
+    @Modifying
+    @Query(value = """
+            update blobs b
+            set ref_count = b.ref_count - r.refs,
+                unreferenced_at = case when b.ref_count = r.refs then now() else b.unreferenced_at end
+            from (select blob_hash, count(*) as refs
+                  from resources
+                  where path like :pattern escape '\\' and blob_hash is not null
+                  group by blob_hash) r
+            where b.hash = r.blob_hash
+            """, nativeQuery = true)
+    void releaseByPathLike(@Param("pattern") String pattern);
+
+    @Query(value = """
+            select hash from blobs
+            where ref_count = 0 and unreferenced_at < :cutoff
+            order by unreferenced_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<String> lockUnreferenced(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,22 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.ResourceIndexState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ResourceIndexStateRepository extends JpaRepository<ResourceIndexState, Integer> {
+    @Modifying
+    @Query(value = """
+            insert into resource_index_states (user_id, indexed_at)
+            values (:userId, :indexedAt)
+            on conflict (user_id) do nothing
+            """, nativeQuery = true)
+    void insertIfAbsent(@Param("userId") int userId, @Param("indexedAt") Instant indexedAt);
+
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryTransactionLock(@Param("key") long key);
+}
@@ -0,0 +1,106 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ResourceMetadataRepository extends JpaRepository<ResourceMetadata, Long>, ResourceMetadataRepositoryCustom {
+    String SEARCH_BY_NAME_QUERY = """
+            select * from resources
+            where user_id = :userId and parent_path <> '' and lower(name) like :pattern escape '\\'
+            order by rtrim(lower(name), '/') = :query desc,
+                     lower(name) like :prefixPattern escape '\\' desc,
+                     similarity(lower(name), :query) desc,
+                     path collate "C"
+            limit :limit offset :offset
+            """;
+
+    Optional<ResourceMetadata> findByPathAndType(String path, ResourceTypeEnum type);
+
+    boolean existsByPathAndType(String path, ResourceTypeEnum type);
+
+    List<ResourceMetadata> findAllByUserIdAndParentPathNot(int userId, String parentPath);
+
+    @Query(value = SEARCH_BY_NAME_QUERY, nativeQuery = true)
+    List<ResourceMetadata> searchByName(@Param("userId") int userId, @Param("query") String query,
+                                        @Param("pattern") String pattern, @Param("prefixPattern") String prefixPattern,
+                                        @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = SEARCH_BY_NAME_QUERY, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<ResourceMetadata> streamByName(@Param("userId") int userId, @Param("query") String query,
+                                          @Param("pattern") String pattern, @Param("prefixPattern") String prefixPattern,
+                                          @Param("limit") int limit, @Param("offset") long offset);
+
+    @Modifying
+    @Query(value = """
+            insert into resources (user_id, path, parent_path, name, size, etag, modified_at, type)
+            values (:userId, :path, :parentPath, :name, :size, :etag, :modifiedAt, 'FILE')
+            on conflict (path) do update
+            set size = excluded.size, etag = excluded.etag, modified_at = excluded.modified_at, type = excluded.type
+            where resources.blob_hash is null
+            """, nativeQuery = true)
+    void upsertFile(@Param("userId") int userId, @Param("path") String path, @Param("parentPath") String parentPath,
+                    @Param("name") String name, @Param("size") long size, @Param("etag") String etag,
+                    @Param("modifiedAt") Instant modifiedAt);
+
+    @Modifying
+    @Query(value = """
+            insert into resources (user_id, path, parent_path, name, size, etag, modified_at, blob_hash, type)
+            values (:userId, :path, :parentPath, :name, :size, :hash, :modifiedAt, :hash, 'FILE')
+            on conflict (path) do nothing
+            """, nativeQuery = true)
+    int insertBlobFile(@Param("userId") int userId, @Param("path") String path, @Param("parentPath") String parentPath,
+                       @Param("name") String name, @Param("size") long size, @Param("hash") String hash,
+                       @Param("modifiedAt") Instant modifiedAt);
+
+    @Modifying
+    @Query(value = """
+            insert into resources (user_id, path, parent_path, name, type)
+            values (:userId, :path, :parentPath, :name, 'DIRECTORY')
+            on conflict (path) do nothing
+            """, nativeQuery = true)
+    int insertFolderIfAbsent(@Param("userId") int userId, @Param("path") String path,
+                             @Param("parentPath") String parentPath, @Param("name") String name);
+
+    @Query("select coalesce(sum(r.size), 0) from ResourceMetadata r where r.userId = :userId")
+    long sumSizeByUserId(@Param("userId") int userId);
+
+    @Query("select r from ResourceMetadata r where r.path like :pattern escape '\\' and r.path > :afterPath order by r.path")
+    List<ResourceMetadata> findDescendantsAfter(@Param("pattern") String pattern, @Param("afterPath") String afterPath, Limit limit);
+
+    @Modifying
+    @Query("delete from ResourceMetadata r where r.path = :path")
+    void deleteByPath(@Param("path") String path);
+
+    @Modifying
+    @Query("delete from ResourceMetadata r where r.path like :pattern escape '\\'")
+    void deleteByPathLike(@Param("pattern") String pattern);
+
+    @Modifying
+    @Query(value = """
+            update resources
+            set path = :to || substring(path from :fromLength + 1),
+                parent_path = :to || substring(parent_path from :fromLength + 1)
+            where path like :fromPattern escape '\\' and path <> :from
+            """, nativeQuery = true)
+    void moveDescendants(@Param("from") String from, @Param("fromPattern") String fromPattern,
+                         @Param("fromLength") int fromLength, @Param("to") String to);
+
+    @Modifying
+    @Query("update ResourceMetadata r set r.path = :to, r.parentPath = :parentPath, r.name = :name where r.path = :from")
+    void move(@Param("from") String from, @Param("to") String to,
+              @Param("parentPath") String parentPath, @Param("name") String name);
+}
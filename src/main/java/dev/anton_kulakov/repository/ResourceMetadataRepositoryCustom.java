@@ -0,0 +1,20 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.util.ListingCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ResourceMetadataRepositoryCustom {
+    String STREAM_FETCH_SIZE = "500";
+
+    List<ResourceMetadata> findChildren(String parentPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                        Sort.Direction direction, ListingCursor after, Integer limit);
+
+    Stream<ResourceMetadata> streamChildren(String parentPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                            Sort.Direction direction, ListingCursor after, Integer limit);
+}
@@ -0,0 +1,109 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.util.ListingCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ResourceMetadataRepositoryImpl implements ResourceMetadataRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ResourceMetadata> findChildren(String parentPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                               Sort.Direction direction, ListingCursor after, Integer limit) {
+        return createChildrenQuery(parentPath, type, sortField, direction, after, limit).getResultList();
+    }
+
+    @Override
+    public Stream<ResourceMetadata> streamChildren(String parentPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                                   Sort.Direction direction, ListingCursor after, Integer limit) {
+        return createChildrenQuery(parentPath, type, sortField, direction, after, limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<ResourceMetadata> createChildrenQuery(String parentPath, ResourceTypeEnum type,
+                                                             ResourceSortFieldEnum sortField, Sort.Direction direction,
+                                                             ListingCursor after, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ResourceMetadata> query = cb.createQuery(ResourceMetadata.class);
+        Root<ResourceMetadata> root = query.from(ResourceMetadata.class);
+        Path<String> path = root.get("path");
+        boolean ascending = direction.isAscending();
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("parentPath"), parentPath));
+
+        if (type != null) {
+            predicates.add(cb.equal(root.get("type"), type));
+        }
+
+        List<Order> orders = new ArrayList<>();
+
+        switch (sortField) {
+            case NAME -> {
+                if (after != null) {
+                    predicates.add(ascending
+                            ? cb.greaterThan(path, after.getLastPath())
+                            : cb.lessThan(path, after.getLastPath()));
+                }
+            }
+            case SIZE -> {
+                Expression<Long> size = cb.coalesce(root.<Long>get("size"), ListingCursor.MISSING_SIZE);
+                orders.add(ascending ? cb.asc(size) : cb.desc(size));
+
+                if (after != null) {
+                    predicates.add(after(cb, size, after.getSizeKey(), path, after.getLastPath(), ascending));
+                }
+            }
+            case MODIFIED -> {
+                Expression<Instant> modifiedAt = cb.coalesce(root.<Instant>get("modifiedAt"), ListingCursor.MISSING_MODIFIED_AT);
+                orders.add(ascending ? cb.asc(modifiedAt) : cb.desc(modifiedAt));
+
+                if (after != null) {
+                    predicates.add(after(cb, modifiedAt, after.getModifiedAtKey(), path, after.getLastPath(), ascending));
+                }
+            }
+        }
+
+        orders.add(ascending ? cb.asc(path) : cb.desc(path));
+        query.select(root).where(predicates.toArray(Predicate[]::new)).orderBy(orders);
+
+        TypedQuery<ResourceMetadata> typedQuery = entityManager.createQuery(query);
+
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        return typedQuery;
+    }
+
+    private static <T extends Comparable<? super T>> Predicate after(CriteriaBuilder cb, Expression<T> key, T lastKey,
+                                                                     Path<String> path, String lastPath, boolean ascending) {
+        if (ascending) {
+            return cb.or(cb.greaterThan(key, lastKey),
+                    cb.and(cb.equal(key, lastKey), cb.greaterThan(path, lastPath)));
+        }
+
+        return cb.or(cb.lessThan(key, lastKey),
+                cb.and(cb.equal(key, lastKey), cb.lessThan(path, lastPath)));
+    }
+}
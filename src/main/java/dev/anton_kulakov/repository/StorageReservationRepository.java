@@ -0,0 +1,19 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.StorageReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface StorageReservationRepository extends JpaRepository<StorageReservation, UUID> {
+    @Query("select coalesce(sum(r.size), 0) from StorageReservation r where r.userId = :userId and r.expiresAt > :now")
+    long sumActiveSizeByUserId(@Param("userId") int userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from StorageReservation r where r.userId = :userId and r.expiresAt <= :now")
+    void deleteExpiredByUserId(@Param("userId") int userId, @Param("now") Instant now);
+}
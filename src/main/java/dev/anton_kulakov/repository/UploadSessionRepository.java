@@ -0,0 +1,31 @@
+package dev.anton_kulakov.repository;
+
+import dev.anton_kulakov.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+    Optional<UploadSession> findByIdAndUserId(UUID id, int userId);
+
+    @Query(value = """
+            select * from upload_sessions
+            where updated_at < :threshold
+            order by updated_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<UploadSession> lockStale(@Param("threshold") Instant threshold, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("update UploadSession s set s.updatedAt = :updatedAt where s.id = :id")
+    void updateUpdatedAt(@Param("id") UUID id, @Param("updatedAt") Instant updatedAt);
+}
@@ -2,9 +2,14 @@ package dev.anton_kulakov.repository;
 
 import dev.anton_kulakov.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
+
+    @Query(value = "select id from users where id = :id for update", nativeQuery = true)
+    Optional<Integer> lockById(@Param("id") int id);
 }
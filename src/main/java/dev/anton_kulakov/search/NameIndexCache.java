@@ -0,0 +1,138 @@
+package dev.anton_kulakov.search;
+
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.service.ResourceIndexService;
+import dev.anton_kulakov.util.PathProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NameIndexCache {
+    private final ResourceIndexService resourceIndexService;
+    private final PathProcessor pathProcessor;
+    private final ExecutorService nameIndexExecutor;
+
+    @Value("${search.memory-index.enabled}")
+    private boolean enabled;
+
+    @Value("${search.memory-index.max-size}")
+    private DataSize maxSize;
+
+    private final Map<Integer, UserNameIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Integer> buildingUsers = new HashSet<>();
+    private final Set<Integer> staleBuilds = new HashSet<>();
+    private long totalBytes;
+
+    public Optional<List<ResourceMetadata>> search(int userId, String query, int page, int size) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserNameIndex index;
+
+        synchronized (this) {
+            index = indexes.get(userId);
+
+            if (index == null) {
+                scheduleBuild(userId);
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(index.search(query, (long) page * size, size));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onResourceChanged(ResourceChangedEvent event) {
+        int userId = event.getUserId();
+
+        if (buildingUsers.contains(userId)) {
+            staleBuilds.add(userId);
+        }
+
+        UserNameIndex index = indexes.get(userId);
+
+        if (index == null) {
+            return;
+        }
+
+        long bytesBefore = index.getEstimatedBytes();
+
+        switch (event.getChangeType()) {
+            case FILE_ADDED -> index.addFile(event.getPath(), event.getSize());
+            case FOLDER_ADDED -> index.addFolder(event.getPath());
+            case FILE_REMOVED -> index.remove(event.getPath());
+            case FOLDER_REMOVED, MOVED, REINDEXED -> {
+                indexes.remove(userId);
+                totalBytes -= bytesBefore;
+                return;
+            }
+        }
+
+        totalBytes += index.getEstimatedBytes() - bytesBefore;
+        evictOverBudget();
+    }
+
+    public synchronized void invalidateAll() {
+        indexes.clear();
+        staleBuilds.addAll(buildingUsers);
+        totalBytes = 0;
+    }
+
+    private void scheduleBuild(int userId) {
+        if (!buildingUsers.add(userId)) {
+            return;
+        }
+
+        nameIndexExecutor.execute(() -> build(userId));
+    }
+
+    private void build(int userId) {
+        UserNameIndex index = null;
+
+        try {
+            index = new UserNameIndex(pathProcessor, resourceIndexService.getAll(userId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to build the in-memory name index of user {}", userId, e);
+        }
+
+        synchronized (this) {
+            boolean isStale = staleBuilds.remove(userId);
+            buildingUsers.remove(userId);
+
+            if (index == null || isStale || index.getEstimatedBytes() > maxSize.toBytes()) {
+                return;
+            }
+
+            indexes.put(userId, index);
+            totalBytes += index.getEstimatedBytes();
+            evictOverBudget();
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Integer, UserNameIndex>> leastRecentlyUsed = indexes.entrySet().iterator();
+
+        while (totalBytes > maxSize.toBytes() && leastRecentlyUsed.hasNext()) {
+            UserNameIndex evicted = leastRecentlyUsed.next().getValue();
+            totalBytes -= evicted.getEstimatedBytes();
+            leastRecentlyUsed.remove();
+        }
+    }
+}
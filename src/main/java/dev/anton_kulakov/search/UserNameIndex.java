@@ -0,0 +1,256 @@
+package dev.anton_kulakov.search;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.util.PathProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class UserNameIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long POSTINGS_OVERHEAD_BYTES = 64;
+
+    private final PathProcessor pathProcessor;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> idsByPath = new HashMap<>();
+    private final Map<String, Postings> postingsByGram = new HashMap<>();
+    private long estimatedBytes;
+    private int removedCount;
+
+    public UserNameIndex(PathProcessor pathProcessor, List<ResourceMetadata> resources) {
+        this.pathProcessor = pathProcessor;
+
+        for (ResourceMetadata resource : resources) {
+            add(resource);
+        }
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public synchronized void addFile(String path, long size) {
+        remove(path);
+
+        ResourceMetadata file = new ResourceMetadata();
+        file.setPath(path);
+        file.setName(pathProcessor.getFileName(path));
+        file.setSize(size);
+        file.setType(ResourceTypeEnum.FILE);
+        add(file);
+
+        addFolder(pathProcessor.getParentPath(path));
+    }
+
+    public synchronized void addFolder(String path) {
+        String folderPath = path;
+
+        while (!pathProcessor.getParentPath(folderPath).isEmpty() && !idsByPath.containsKey(folderPath)) {
+            ResourceMetadata folder = new ResourceMetadata();
+            folder.setPath(folderPath);
+            folder.setName(pathProcessor.getLastFolderName(folderPath));
+            folder.setType(ResourceTypeEnum.DIRECTORY);
+            add(folder);
+
+            folderPath = pathProcessor.getParentPath(folderPath);
+        }
+    }
+
+    public synchronized void remove(String path) {
+        Integer id = idsByPath.remove(path);
+
+        if (id == null) {
+            return;
+        }
+
+        estimatedBytes -= entryBytes(entries.get(id).resource);
+        entries.set(id, null);
+        removedCount++;
+
+        if (removedCount > entries.size() / 2) {
+            compact();
+        }
+    }
+
+    public synchronized List<ResourceMetadata> search(String query, long offset, int limit) {
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        Set<String> queryTrigrams = similarityTrigrams(lowerCaseQuery);
+        List<Entry> matches = new ArrayList<>();
+
+        for (int id : candidates(lowerCaseQuery)) {
+            Entry entry = entries.get(id);
+
+            if (entry != null && entry.lowerCaseName.contains(lowerCaseQuery)) {
+                matches.add(entry);
+            }
+        }
+
+        // Mirrors the ordering of the SQL search, so that a query paged across both sources ranks its results the same way
+        Comparator<Entry> ranking = Comparator
+                .comparing((Entry entry) -> !stripTrailingSlash(entry.lowerCaseName).equals(lowerCaseQuery))
+                .thenComparing(entry -> !entry.lowerCaseName.startsWith(lowerCaseQuery))
+                .thenComparing(entry -> -similarity(entry.similarityTrigrams(), queryTrigrams))
+                .thenComparing(entry -> entry.resource.getPath(), UserNameIndex::compareCodePoints);
+
+        return matches.stream()
+                .sorted(ranking)
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> entry.resource)
+                .toList();
+    }
+
+    private int[] candidates(String lowerCaseQuery) {
+        if (lowerCaseQuery.length() < GRAM_LENGTH) {
+            int[] allIds = new int[entries.size()];
+            Arrays.setAll(allIds, id -> id);
+            return allIds;
+        }
+
+        Postings smallest = null;
+
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseQuery.length(); i++) {
+            Postings postings = postingsByGram.get(lowerCaseQuery.substring(i, i + GRAM_LENGTH));
+
+            if (postings == null) {
+                return new int[0];
+            }
+
+            if (smallest == null || postings.size < smallest.size) {
+                smallest = postings;
+            }
+        }
+
+        return Arrays.copyOf(smallest.ids, smallest.size);
+    }
+
+    private void add(ResourceMetadata resource) {
+        int id = entries.size();
+        Entry entry = new Entry(resource);
+        entries.add(entry);
+        idsByPath.put(resource.getPath(), id);
+        estimatedBytes += entryBytes(resource);
+
+        for (String gram : substringGrams(entry.lowerCaseName)) {
+            Postings postings = postingsByGram.computeIfAbsent(gram, key -> {
+                estimatedBytes += POSTINGS_OVERHEAD_BYTES;
+                return new Postings();
+            });
+            postings.add(id);
+            estimatedBytes += Integer.BYTES;
+        }
+    }
+
+    private void compact() {
+        List<ResourceMetadata> resources = entries.stream()
+                .filter(entry -> entry != null)
+                .map(entry -> entry.resource)
+                .toList();
+
+        entries.clear();
+        idsByPath.clear();
+        postingsByGram.clear();
+        estimatedBytes = 0;
+        removedCount = 0;
+
+        for (ResourceMetadata resource : resources) {
+            add(resource);
+        }
+    }
+
+    private static Set<String> substringGrams(String lowerCaseName) {
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseName.length(); i++) {
+            grams.add(lowerCaseName.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    private static Set<String> similarityTrigrams(String lowerCaseText) {
+        Set<String> trigrams = new HashSet<>();
+
+        for (String word : lowerCaseText.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+
+            String paddedWord = "  " + word + " ";
+
+            for (int i = 0; i + GRAM_LENGTH <= paddedWord.length(); i++) {
+                trigrams.add(paddedWord.substring(i, i + GRAM_LENGTH));
+            }
+        }
+
+        return trigrams;
+    }
+
+    private static float similarity(Set<String> first, Set<String> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return 0;
+        }
+
+        int shared = 0;
+
+        for (String trigram : first) {
+            if (second.contains(trigram)) {
+                shared++;
+            }
+        }
+
+        return (float) shared / (first.size() + second.size() - shared);
+    }
+
+    private static int compareCodePoints(String first, String second) {
+        // Matches the "C" collation of the SQL search, which orders UTF-8 bytes and so code points rather than UTF-16 units
+        return Arrays.compare(first.codePoints().toArray(), second.codePoints().toArray());
+    }
+
+    private static String stripTrailingSlash(String name) {
+        return name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+    }
+
+    private static long entryBytes(ResourceMetadata resource) {
+        return ENTRY_OVERHEAD_BYTES + 4L * (resource.getPath().length() + resource.getName().length());
+    }
+
+    private static class Entry {
+        private final ResourceMetadata resource;
+        private final String lowerCaseName;
+        private Set<String> similarityTrigrams;
+
+        private Entry(ResourceMetadata resource) {
+            this.resource = resource;
+            this.lowerCaseName = resource.getName().toLowerCase(Locale.ROOT);
+        }
+
+        private Set<String> similarityTrigrams() {
+            if (similarityTrigrams == null) {
+                similarityTrigrams = UserNameIndex.similarityTrigrams(lowerCaseName);
+            }
+            return similarityTrigrams;
+        }
+    }
+
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
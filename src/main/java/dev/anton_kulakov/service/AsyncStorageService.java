@@ -0,0 +1,128 @@
+package dev.anton_kulakov.service;
+
+import dev.anton_kulakov.config.MultipartMinioClient;
+import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AsyncStorageService {
+    private final MultipartMinioClient multipartMinioClient;
+    private final MinioService minioService;
+    private final ExecutorService fanOutVirtualThreadExecutor;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    @Value("${minio.upload.multipart-threshold}")
+    private DataSize multipartThreshold;
+
+    public CompletableFuture<StatObjectResponse> getStatObject(String path) {
+        CompletableFuture<StatObjectResponse> statObject;
+
+        try {
+            statObject = multipartMinioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(path)
+                    .build());
+        } catch (Exception e) {
+            statObject = CompletableFuture.failedFuture(e);
+        }
+
+        return statObject.handle((response, error) -> {
+            if (error == null) {
+                return response;
+            }
+
+            Throwable cause = unwrap(error);
+
+            if (cause instanceof ErrorResponseException e && "NoSuchKey".equals(e.errorResponse().code())) {
+                throw new ResourceNotFoundException("Resource not found at path: " + path);
+            }
+            log.error("Failed to retrieve metadata for object in bucket '{}'. Path: '{}'", bucketName, path, cause);
+            throw new MinioException("Failed to retrieve object metadata");
+        });
+    }
+
+    public CompletableFuture<ObjectWriteResponse> upload(String path, MultipartFile file, boolean preventOverwrite) {
+        if (file.getSize() >= multipartThreshold.toBytes()) {
+            return CompletableFuture.supplyAsync(() -> minioService.upload(path, file, preventOverwrite), fanOutVirtualThreadExecutor);
+        }
+
+        InputStream inputStream;
+        CompletableFuture<ObjectWriteResponse> upload;
+
+        try {
+            inputStream = file.getInputStream();
+        } catch (IOException e) {
+            log.error("Upload failed for '{}'", path, e);
+            return CompletableFuture.failedFuture(new MinioException("Upload failed"));
+        }
+
+        try {
+            Map<String, String> headers = new HashMap<>();
+            if (preventOverwrite) {
+                headers.put("If-None-Match", "*");
+            }
+
+            upload = multipartMinioClient.putObject(PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(path)
+                            .stream(inputStream, file.getSize(), -1)
+                            .contentType(file.getContentType())
+                            .headers(headers)
+                            .build());
+        } catch (Exception e) {
+            upload = CompletableFuture.failedFuture(e);
+        }
+
+        return upload.handle((result, error) -> {
+            closeQuietly(inputStream, path);
+
+            if (error == null) {
+                return result;
+            }
+
+            Throwable cause = unwrap(error);
+
+            if (preventOverwrite && cause instanceof ErrorResponseException e && "PreconditionFailed".equals(e.errorResponse().code())) {
+                throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(path));
+            }
+            log.error("Upload failed for '{}'", path, cause);
+            throw new MinioException("Upload failed");
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static void closeQuietly(InputStream inputStream, String path) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the upload stream of '{}'", path, e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.anton_kulakov.service;
+
+import com.google.common.io.CountingInputStream;
+import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.repository.BlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlobStorageService {
+    private static final String BLOB_PREFIX = ".blobs/sha256/";
+    private static final String STAGING_PREFIX = ".staging/";
+    private static final int GC_BATCH_SIZE = 1000;
+
+    private final MinioService minioService;
+    private final ResourceIndexService resourceIndexService;
+    private final BlobRepository blobRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.dedup.enabled}")
+    private boolean enabled;
+
+    @Value("${storage.dedup.gc-grace-period}")
+    private Duration gcGracePeriod;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void store(String path, InputStream inputStream, String contentType) {
+        if (resourceIndexService.isFileExists(path)) {
+            throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(path));
+        }
+
+        String stagingKey = STAGING_PREFIX + UUID.randomUUID();
+        DigestInputStream digestInputStream = new DigestInputStream(inputStream, sha256());
+        CountingInputStream countingInputStream = new CountingInputStream(digestInputStream);
+
+        try {
+            minioService.upload(stagingKey, countingInputStream, contentType, false);
+            long size = countingInputStream.getCount();
+            String hash = HexFormat.of().formatHex(digestInputStream.getMessageDigest().digest());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                blobRepository.acquire(hash, size);
+                boolean isNewBlob = blobRepository.findRefCount(hash) == 1;
+
+                if (isNewBlob) {
+                    minioService.copy(stagingKey, getBlobKey(hash));
+                } else {
+                    log.info("Deduplicated upload of '{}' against blob {}", path, hash);
+                }
+
+                try {
+                    if (!resourceIndexService.addBlobFile(path, size, hash, Instant.now())) {
+                        throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(path));
+                    }
+                } catch (RuntimeException e) {
+                    // The blob row is still locked here, so no concurrent upload can have started to rely on the copy
+                    if (isNewBlob) {
+                        removeBlob(hash);
+                    }
+                    throw e;
+                }
+            });
+        } finally {
+            removeStagedObject(stagingKey);
+        }
+    }
+
+    public String resolveObjectKey(String path) {
+        if (!enabled) {
+            return path;
+        }
+
+        return resourceIndexService.findFile(path)
+                .map(this::getObjectKey)
+                .orElse(path);
+    }
+
+    public String getObjectKey(ResourceMetadata file) {
+        return file.getBlobHash() == null ? file.getPath() : getBlobKey(file.getBlobHash());
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${storage.dedup.gc-interval}")
+    public void collectGarbage() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> hashes = blobRepository.lockUnreferenced(Instant.now().minus(gcGracePeriod), GC_BATCH_SIZE);
+
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        blobRepository.deleteAllByIdInBatch(hashes);
+        List<String> notRemoved = minioService.tryRemoveObjects(hashes.stream().map(this::getBlobKey).toList());
+
+        if (!notRemoved.isEmpty()) {
+            log.error("Failed to remove {} of {} unreferenced blobs, keeping them for the next run", notRemoved.size(), hashes.size());
+            throw new MinioException("Failed to remove unreferenced blobs");
+        }
+
+        log.info("Removed {} unreferenced blobs", hashes.size());
+    }
+
+    private String getBlobKey(String hash) {
+        return BLOB_PREFIX + hash;
+    }
+
+    private void removeBlob(String hash) {
+        try {
+            minioService.removeObject(getBlobKey(hash));
+        } catch (MinioException e) {
+            log.error("Failed to remove blob {} of a rolled back upload, it is left orphaned", hash, e);
+        }
+    }
+
+    private void removeStagedObject(String stagingKey) {
+        try {
+            minioService.removeObject(stagingKey);
+        } catch (MinioException e) {
+            log.warn("Failed to remove staged upload '{}'", stagingKey, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package dev.anton_kulakov.service;
+
+import com.google.common.collect.Lists;
+import dev.anton_kulakov.concurrent.FanOutExecutor;
+import dev.anton_kulakov.config.MultipartMinioClient;
+import dev.anton_kulakov.exception.DeadlineExceededException;
+import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.exception.PartialMoveException;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.util.PathProcessor;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkMoveExecutor {
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+    private final MultipartMinioClient multipartMinioClient;
+    private final MinioService minioService;
+    private final PathProcessor pathProcessor;
+    private final FanOutExecutor fanOutExecutor;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    @Value("${minio.move.concurrency}")
+    private int concurrency;
+
+    public void move(String from, String to, Iterable<Item> objects) {
+        List<String> sources = copyAll(from, to, objects);
+        List<String> notRemoved = removeInBatches(sources);
+
+        if (!notRemoved.isEmpty()) {
+            log.error("Moved {} objects from '{}' to '{}', but {} sources could not be removed", sources.size(), from, to, notRemoved.size());
+            throw new PartialMoveException("The folder was copied to %s, but %d of %d source files could not be removed, for example: %s"
+                    .formatted(pathProcessor.getPathWithoutRootFolder(to), notRemoved.size(), sources.size(),
+                            pathProcessor.getPathWithoutRootFolder(notRemoved.get(0))), notRemoved);
+        }
+
+        log.info("Moved {} objects from '{}' to '{}'", sources.size(), from, to);
+    }
+
+    private List<String> copyAll(String from, String to, Iterable<Item> objects) {
+        Queue<String> copiedObjects = new ConcurrentLinkedQueue<>();
+        Queue<String> sources = new ConcurrentLinkedQueue<>();
+        CopyTracker copies = new CopyTracker();
+
+        try {
+            fanOutExecutor.forEach(objects, concurrency, object -> {
+                String destination = to + pathProcessor.getRelativePath(from, object.objectName());
+                sources.add(object.objectName());
+                await(copies.start(() -> copy(object, destination)
+                        .whenComplete((response, failure) -> {
+                            if (failure == null) {
+                                copiedObjects.add(destination);
+                            }
+                        })));
+            });
+        } catch (RuntimeException e) {
+            // Cancelling a copy doesn't abort its HTTP call, so every started copy has to settle before the rollback
+            copies.closeAndAwait();
+            List<String> notRolledBack = removeInBatches(new ArrayList<>(copiedObjects));
+
+            if (!notRolledBack.isEmpty()) {
+                log.error("Failed to roll back {} copies made while moving '{}' to '{}'", notRolledBack.size(), from, to);
+            }
+
+            throw translateCopyFailure(from, e instanceof CompletionException ? e.getCause() : e);
+        }
+
+        return new ArrayList<>(sources);
+    }
+
+    private CompletableFuture<Void> copy(Item object, String destination) {
+        String etag = object.etag().replace("\"", "");
+
+        if (object.size() <= MAX_SINGLE_COPY_SIZE) {
+            return multipartMinioClient.copyIfMatch(bucketName, object.objectName(), destination, etag);
+        }
+
+        try {
+            return multipartMinioClient.copyObject(CopyObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(destination)
+                            .source(CopySource.builder()
+                                    .bucket(bucketName)
+                                    .object(object.objectName())
+                                    .matchETag(etag)
+                                    .build())
+                            .build())
+                    .thenAccept(response -> {
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> copy) {
+        try {
+            copy.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("The copy was cancelled");
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private List<String> removeInBatches(List<String> objectNames) {
+        List<List<String>> batches = Lists.partition(objectNames, DELETE_BATCH_SIZE);
+
+        return fanOutExecutor.map(batches, concurrency, minioService::tryRemoveObjects).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private RuntimeException translateCopyFailure(String from, Throwable failure) {
+        if (failure instanceof ErrorResponseException e) {
+            String errorCode = e.errorResponse().code();
+
+            if ("NoSuchKey".equals(errorCode)) {
+                log.warn("A resource disappeared while moving folder '{}'", from);
+                return new ResourceNotFoundException("The source file could not be found: " + e.errorResponse().objectName());
+            }
+
+            if ("PreconditionFailed".equals(errorCode)) {
+                log.warn("Optimistic lock failed: folder '{}' was modified during the move operation", from);
+                return new ConcurrentModificationException("Folder '%s' was modified during the move operation. Please try again".formatted(from));
+            }
+        }
+
+        if (failure instanceof DeadlineExceededException e) {
+            return e;
+        }
+
+        log.error("Failed to copy objects while moving folder '{}'", from, failure);
+        return new MinioException("Failed to move folder");
+    }
+
+    private static class CopyTracker {
+        private final List<CompletableFuture<Void>> copies = new ArrayList<>();
+        private boolean isClosed;
+
+        private synchronized CompletableFuture<Void> start(Supplier<CompletableFuture<Void>> copy) {
+            if (isClosed) {
+                throw new CancellationException("The move is being rolled back");
+            }
+
+            CompletableFuture<Void> startedCopy = copy.get();
+            copies.add(startedCopy);
+            return startedCopy;
+        }
+
+        private void closeAndAwait() {
+            CompletableFuture<?>[] startedCopies;
+
+            synchronized (this) {
+                isClosed = true;
+                startedCopies = copies.toArray(CompletableFuture[]::new);
+            }
+
+            CompletableFuture.allOf(startedCopies)
+                    .handle((result, failure) -> null)
+                    .join();
+        }
+    }
+}
@@ -1,47 +1,260 @@
 package dev.anton_kulakov.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.anton_kulakov.cache.MetadataCache;
 import dev.anton_kulakov.dto.DownloadResponse;
+import dev.anton_kulakov.dto.PresignedUrlDto;
+import dev.anton_kulakov.exception.BaseAppException;
+import dev.anton_kulakov.exception.RangeNotSatisfiableException;
 import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.model.CompressionLevelEnum;
+import dev.anton_kulakov.model.DownloadModeEnum;
+import dev.anton_kulakov.streaming.ArchiveObject;
+import dev.anton_kulakov.streaming.ByteRange;
 import dev.anton_kulakov.streaming.FileStreamingResponseBody;
 import dev.anton_kulakov.streaming.FolderStreamingResponseBody;
+import dev.anton_kulakov.streaming.MultiRangeStreamingResponseBody;
+import dev.anton_kulakov.streaming.ObjectPrefetcher;
+import dev.anton_kulakov.streaming.StoredFolderStreamingResponseBody;
+import dev.anton_kulakov.streaming.StoredZipEntry;
+import dev.anton_kulakov.streaming.StoredZipOutputStream;
 import dev.anton_kulakov.streaming.StreamCopier;
+import dev.anton_kulakov.streaming.ZipCompressionPolicy;
 import dev.anton_kulakov.util.PathProcessor;
+import io.minio.StatObjectResponse;
+import io.minio.http.Method;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DownloadService {
+    private static final String BYTES_RANGE_UNIT = "bytes";
+
     private final MinioService minioService;
     private final ResourceServiceFactory resourceServiceFactory;
     private final FolderResourceService folderResourceService;
     private final PathProcessor pathProcessor;
     private final StreamCopier streamCopier;
+    private final ObjectPrefetcher objectPrefetcher;
+    private final ZipCompressionPolicy compressionPolicy;
+    private final MetadataCache metadataCache;
+    private final BlobStorageService blobStorageService;
+    private final AsyncStorageService asyncStorageService;
+    private final ExecutorService fanOutVirtualThreadExecutor;
+    private final ObjectMapper objectMapper;
+
+    @Value("${minio.download.mode}")
+    private DownloadModeEnum downloadMode;
+
+    @Value("${minio.download.presigned-url-expiry}")
+    private Duration presignedUrlExpiry;
+
+    public CompletableFuture<DownloadResponse> prepareDownloadResponse(String path, String rangeHeader, String ifRangeHeader,
+                                                                       CompressionLevelEnum compressionLevel) {
+        if (!path.endsWith("/")) {
+            return resolveObjectKey(path)
+                    .thenCompose(objectKey -> getFileStat(path, objectKey)
+                            .thenApply(statObject -> downloadMode == DownloadModeEnum.PROXY
+                                    ? prepareFileDownloadResponse(objectKey, statObject, rangeHeader, ifRangeHeader)
+                                    : preparePresignedDownloadResponse(path, objectKey)));
+        }
+
+        return CompletableFuture.supplyAsync(() -> prepareFolderDownloadResponse(path, compressionLevel), fanOutVirtualThreadExecutor);
+    }
 
-    public DownloadResponse prepareDownloadResponse(String path) {
+    private DownloadResponse prepareFolderDownloadResponse(String path, CompressionLevelEnum compressionLevel) {
         if (!resourceServiceFactory.getResourceService(path).isExists(path)) {
             log.warn("Attempt to download a non-existent resource: {}", path);
             throw new ResourceNotFoundException("The requested resource could not be found");
         }
 
-        StreamingResponseBody responseBody;
-        MediaType contentType;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "none");
+
+        if (compressionLevel == CompressionLevelEnum.NONE) {
+            return prepareStoredFolderDownloadResponse(path, headers);
+        }
+
+        StreamingResponseBody responseBody = new FolderStreamingResponseBody(objectPrefetcher, pathProcessor, streamCopier,
+                compressionPolicy, compressionLevel, () -> folderResourceService.streamArchiveObjects(path), path);
+
+        return new DownloadResponse(responseBody, MediaType.valueOf("application/zip"), HttpStatus.OK, headers);
+    }
+
+    private DownloadResponse prepareStoredFolderDownloadResponse(String path, HttpHeaders headers) {
+        List<ArchiveObject> archivedFiles = new ArrayList<>();
+        List<StoredZipEntry> entries = new ArrayList<>();
+
+        try (Stream<ArchiveObject> filesInFolder = folderResourceService.streamArchiveObjects(path)) {
+            filesInFolder.forEach(file -> {
+                String entryName = pathProcessor.getRelativePath(path, file.getPath());
+
+                if (!entryName.isEmpty()) {
+                    archivedFiles.add(file);
+                    entries.add(new StoredZipEntry(entryName, file.getSize(), file.getLastModified()));
+                }
+            });
+        }
+
+        headers.setContentLength(StoredZipOutputStream.calculateLength(entries));
+        StreamingResponseBody responseBody = new StoredFolderStreamingResponseBody(objectPrefetcher, streamCopier, archivedFiles, entries);
+
+        return new DownloadResponse(responseBody, MediaType.valueOf("application/zip"), HttpStatus.OK, headers);
+    }
+
+    private DownloadResponse preparePresignedDownloadResponse(String path, String objectKey) {
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename(pathProcessor.getFileName(path), StandardCharsets.UTF_8)
+                .build();
+        String url = minioService.getPresignedObjectUrl(Method.GET, objectKey, presignedUrlExpiry,
+                Map.of("response-content-disposition", contentDisposition.toString()));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noStore());
 
-        if (path.endsWith("/")) {
-            List<String> resourcesInFolder = folderResourceService.getResourcesNamesInFolder(path);
-            responseBody = new FolderStreamingResponseBody(minioService, pathProcessor, streamCopier, resourcesInFolder, path);
-            contentType = MediaType.valueOf("application/zip");
-        } else {
-            responseBody = new FileStreamingResponseBody(minioService, streamCopier, path);
-            contentType = MediaType.APPLICATION_OCTET_STREAM;
+        if (downloadMode == DownloadModeEnum.REDIRECT) {
+            headers.setLocation(URI.create(url));
+            return new DownloadResponse(null, null, HttpStatus.FOUND, headers);
         }
 
-        return new DownloadResponse(responseBody, contentType);
+        byte[] body;
+
+        try {
+            body = objectMapper.writeValueAsBytes(new PresignedUrlDto(url, presignedUrlExpiry.toSeconds()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize the presigned URL of '{}'", path, e);
+            throw new BaseAppException("Failed to create a download link");
+        }
+
+        return new DownloadResponse(outputStream -> outputStream.write(body), MediaType.APPLICATION_JSON, HttpStatus.OK, headers);
+    }
+
+    private DownloadResponse prepareFileDownloadResponse(String objectKey, StatObjectResponse statObject,
+                                                         String rangeHeader, String ifRangeHeader) {
+        long size = statObject.size();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, BYTES_RANGE_UNIT);
+        headers.setETag(quoted(statObject.etag()));
+        headers.setLastModified(statObject.lastModified());
+
+        List<ByteRange> ranges = rangeHeader == null || !isIfRangeSatisfied(ifRangeHeader, statObject)
+                ? List.of()
+                : parseRanges(rangeHeader, size);
+
+        if (ranges.isEmpty()) {
+            headers.setContentLength(size);
+            return new DownloadResponse(new FileStreamingResponseBody(minioService, streamCopier, objectKey, size),
+                    MediaType.APPLICATION_OCTET_STREAM, HttpStatus.OK, headers);
+        }
+
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            headers.set(HttpHeaders.CONTENT_RANGE, range.toContentRange(size));
+            headers.setContentLength(range.length());
+            return new DownloadResponse(new FileStreamingResponseBody(minioService, streamCopier, objectKey, range),
+                    MediaType.APPLICATION_OCTET_STREAM, HttpStatus.PARTIAL_CONTENT, headers);
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        headers.setContentLength(MultiRangeStreamingResponseBody.calculateContentLength(ranges, size, boundary));
+        return new DownloadResponse(new MultiRangeStreamingResponseBody(minioService, streamCopier, objectKey, ranges, size, boundary),
+                MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary), HttpStatus.PARTIAL_CONTENT, headers);
+    }
+
+    private CompletableFuture<String> resolveObjectKey(String path) {
+        if (!blobStorageService.isEnabled()) {
+            return CompletableFuture.completedFuture(path);
+        }
+
+        return CompletableFuture.supplyAsync(() -> blobStorageService.resolveObjectKey(path), fanOutVirtualThreadExecutor);
+    }
+
+    private CompletableFuture<StatObjectResponse> getFileStat(String path, String objectKey) {
+        return metadataCache.getStat(objectKey, asyncStorageService::getStatObject)
+                .exceptionally(error -> {
+                    if (error instanceof ResourceNotFoundException || error.getCause() instanceof ResourceNotFoundException) {
+                        log.warn("Attempt to download a non-existent resource: {}", path);
+                        throw new ResourceNotFoundException("The requested resource could not be found");
+                    }
+                    throw error instanceof CompletionException completionException ? completionException : new CompletionException(error);
+                });
+    }
+
+    private List<ByteRange> parseRanges(String rangeHeader, long size) {
+        List<HttpRange> httpRanges;
+
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed Range header '{}'", rangeHeader);
+            return List.of();
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(size);
+            long end = httpRange.getRangeEnd(size);
+
+            if (start < size && start <= end) {
+                ranges.add(new ByteRange(start, end));
+            }
+        }
+
+        if (ranges.isEmpty()) {
+            throw new RangeNotSatisfiableException("None of the requested ranges can be satisfied", size);
+        }
+
+        return ranges;
+    }
+
+    private static boolean isIfRangeSatisfied(String ifRangeHeader, StatObjectResponse statObject) {
+        if (ifRangeHeader == null) {
+            return true;
+        }
+
+        if (ifRangeHeader.startsWith("\"") || ifRangeHeader.startsWith("W/")) {
+            return ifRangeHeader.equals(quoted(statObject.etag()));
+        }
+
+        try {
+            ZonedDateTime ifRangeDate = ZonedDateTime.parse(ifRangeHeader, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return ifRangeDate.toInstant().equals(statObject.lastModified().toInstant().truncatedTo(ChronoUnit.SECONDS));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String quoted(String etag) {
+        return "\"" + etag + "\"";
     }
 }
@@ -2,13 +2,23 @@ package dev.anton_kulakov.service;
 
 import dev.anton_kulakov.dto.ResourceInfoDto;
 import dev.anton_kulakov.exception.InvalidMoveOperationException;
+import dev.anton_kulakov.exception.MinioException;
 import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
 import dev.anton_kulakov.exception.ResourceNotFoundException;
 import dev.anton_kulakov.mapper.ResourceMapper;
+import dev.anton_kulakov.model.ResourceMetadata;
 import dev.anton_kulakov.util.PathProcessor;
+import io.minio.StatObjectResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Slf4j
 @Component
@@ -17,20 +27,74 @@ public class FileResourceService implements ResourceServiceInterface {
     private final MinioService minioService;
     private final ResourceMapper resourceMapper;
     private final PathProcessor pathProcessor;
+    private final ResourceIndexService resourceIndexService;
+    private final BlobStorageService blobStorageService;
+    private final AsyncStorageService asyncStorageService;
+    private final ExecutorService fanOutVirtualThreadExecutor;
 
     @Override
     public ResourceInfoDto getInfo(String path) {
-        return resourceMapper.toFileInfoDto(minioService.getStatObject(path));
+        return resourceIndexService.findFile(path)
+                .map(resourceMapper::toInfoDto)
+                .orElseThrow(() -> {
+                    log.warn("The requested file with path {} could not be found", path);
+                    return new ResourceNotFoundException("The requested file could not be found");
+                });
+    }
+
+    public CompletableFuture<ResourceInfoDto> upload(String path, MultipartFile file) {
+        if (blobStorageService.isEnabled()) {
+            return CompletableFuture.supplyAsync(() -> storeBlob(path, file), fanOutVirtualThreadExecutor);
+        }
+
+        return asyncStorageService.upload(path, file, true)
+                .thenApplyAsync(response -> registerUploadedFile(path, file.getSize(), response.etag()), fanOutVirtualThreadExecutor);
+    }
+
+    private ResourceInfoDto storeBlob(String path, MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return upload(path, inputStream, file.getContentType());
+        } catch (IOException e) {
+            log.error("Upload failed for '{}'", path, e);
+            throw new MinioException("Upload failed");
+        }
+    }
+
+    public ResourceInfoDto upload(String path, InputStream inputStream, String contentType) {
+        if (!blobStorageService.isEnabled()) {
+            minioService.upload(path, inputStream, contentType, true);
+            return registerUploadedFile(path);
+        }
+
+        blobStorageService.store(path, inputStream, contentType);
+        return getInfo(path);
+    }
+
+    public ResourceInfoDto registerUploadedFile(String path) {
+        StatObjectResponse statObject = minioService.getStatObject(path);
+        resourceIndexService.addFile(path, statObject.size(), statObject.etag(), statObject.lastModified().toInstant());
+
+        return resourceMapper.toFileInfoDto(statObject);
+    }
+
+    private ResourceInfoDto registerUploadedFile(String path, long size, String etag) {
+        resourceIndexService.addFile(path, size, etag, Instant.now());
+        return resourceMapper.toFileInfoDto(path, size);
     }
 
     @Override
     public void delete(String path) {
-        if (!minioService.isFileExists(path)) {
-            log.error("The requested file with path {} could not be found", path);
-            throw new ResourceNotFoundException("The requested file could not be found");
+        ResourceMetadata file = resourceIndexService.findFile(path)
+                .orElseThrow(() -> {
+                    log.error("The requested file with path {} could not be found", path);
+                    return new ResourceNotFoundException("The requested file could not be found");
+                });
+
+        if (file.getBlobHash() == null) {
+            minioService.removeObject(path);
         }
 
-        minioService.removeObject(path);
+        resourceIndexService.remove(path);
     }
 
     @Override
@@ -46,19 +110,27 @@ public class FileResourceService implements ResourceServiceInterface {
             to += fileExtension;
         }
 
-        if (minioService.isFileExists(to)) {
+        if (resourceIndexService.isFileExists(to)) {
             log.error("The file with path {} is already exists", to);
             throw new ResourceAlreadyExistsException("The file already exists at the destination path: %s".formatted(to));
         }
 
-        minioService.copy(from, to);
-        minioService.removeObject(from);
+        boolean isBlobBacked = resourceIndexService.findFile(from)
+                .map(ResourceMetadata::getBlobHash)
+                .isPresent();
+
+        if (!isBlobBacked) {
+            minioService.copy(from, to);
+            minioService.removeObject(from);
+        }
+
+        resourceIndexService.move(from, to);
         return to;
     }
 
     @Override
     public boolean isExists(String path) {
-        return minioService.isFileExists(path);
+        return resourceIndexService.isFileExists(path);
     }
 
     public boolean isDestinationPathValid(String to) {
@@ -1,19 +1,33 @@
 package dev.anton_kulakov.service;
 
+import dev.anton_kulakov.cache.ListingCache;
 import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.dto.ResourceListPage;
+import dev.anton_kulakov.exception.InvalidMoveOperationException;
+import dev.anton_kulakov.exception.PartialMoveException;
 import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
 import dev.anton_kulakov.exception.ResourceNotFoundException;
 import dev.anton_kulakov.mapper.ResourceMapper;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.streaming.ArchiveObject;
+import dev.anton_kulakov.streaming.ResourceInfoSource;
+import dev.anton_kulakov.util.ListingCursor;
 import dev.anton_kulakov.util.PathProcessor;
 import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -22,10 +36,14 @@ public class FolderResourceService implements ResourceServiceInterface {
     private final MinioService minioService;
     private final ResourceMapper resourceMapper;
     private final PathProcessor pathProcessor;
+    private final BulkMoveExecutor bulkMoveExecutor;
+    private final ResourceIndexService resourceIndexService;
+    private final ListingCache listingCache;
+    private final BlobStorageService blobStorageService;
 
     @Override
     public ResourceInfoDto getInfo(String path) {
-        if (!minioService.isFolderExists(path)) {
+        if (!resourceIndexService.isFolderExists(path)) {
             log.error("The folder with path {} does not exist", path);
             throw new ResourceNotFoundException("The requested folder could not be found");
         }
@@ -35,81 +53,113 @@ public class FolderResourceService implements ResourceServiceInterface {
 
     @Override
     public void delete(String path) {
-        List<DeleteObject> resourcesInFolder = getResourcesNamesInFolder(path).stream()
-                .map(DeleteObject::new)
-                .collect(Collectors.toList());
-
-        if (resourcesInFolder.isEmpty()) {
-            log.error("The folder with path {} is empty or does not exist", path);
-            throw new ResourceNotFoundException("Folder is empty or does not exist");
+        try (Stream<Item> filesInFolder = streamFilesInFolder(path)) {
+            Iterator<DeleteObject> resourcesInFolder = filesInFolder
+                    .map(file -> new DeleteObject(file.objectName()))
+                    .iterator();
+
+            if (resourcesInFolder.hasNext()) {
+                minioService.removeObjects(() -> resourcesInFolder);
+            } else if (!blobStorageService.isEnabled() || !resourceIndexService.isFolderExists(path)) {
+                log.error("The folder with path {} is empty or does not exist", path);
+                throw new ResourceNotFoundException("Folder is empty or does not exist");
+            }
         }
 
-        minioService.removeObjects(resourcesInFolder);
+        resourceIndexService.remove(path);
     }
 
     @Override
     public String move(String from, String to) {
-        if (minioService.isFolderExists(to)) {
-            log.error("The folder with path {} is already exists", to);
-            throw new ResourceAlreadyExistsException("The folder already exists at the destination path: %s".formatted(to));
+        if (to.startsWith(from)) {
+            log.error("The folder {} cannot be moved into itself: {}", from, to);
+            throw new InvalidMoveOperationException("The folder cannot be moved into itself or its subfolder");
         }
 
-        List<String> resourcesNamesInFolder = getResourcesNamesInFolder(from);
-
-        for (String resource : resourcesNamesInFolder) {
-            String relativePath = pathProcessor.getRelativePath(from, resource);
-            minioService.copy(resource, to + relativePath);
+        if (resourceIndexService.isFolderExists(to)) {
+            log.error("The folder with path {} is already exists", to);
+            throw new ResourceAlreadyExistsException("The folder already exists at the destination path: %s".formatted(to));
         }
 
-        for (String resource : resourcesNamesInFolder) {
-            minioService.removeObject(resource);
+        try (Stream<Item> filesInFolder = streamFilesInFolder(from)) {
+            bulkMoveExecutor.move(from, to, filesInFolder::iterator);
+        } catch (PartialMoveException e) {
+            // The whole folder exists at the destination, so the index follows it and keeps only the sources still left
+            resourceIndexService.move(from, to);
+            e.getNotRemovedSources().forEach(resourceIndexService::syncFile);
+            throw e;
         }
 
+        resourceIndexService.move(from, to);
         return to;
     }
 
     @Override
     public boolean isExists(String path) {
-        return minioService.isFolderExists(path);
+        return resourceIndexService.isFolderExists(path);
     }
 
-    public List<String> getResourcesNamesInFolder(String path) {
-        ArrayList<String> resourcesNames = new ArrayList<>();
-        List<Item> objects = minioService.getListObjects(path, true);
-
-        for (Item object : objects) {
-            if (!object.isDir()) {
-                resourcesNames.add(object.objectName());
-            }
+    public Stream<ArchiveObject> streamArchiveObjects(String path) {
+        if (blobStorageService.isEnabled()) {
+            return resourceIndexService.streamDescendants(path)
+                    .map(resource -> new ArchiveObject(
+                            resource.getType() == ResourceTypeEnum.FILE ? blobStorageService.getObjectKey(resource) : null,
+                            resource.getPath(),
+                            resource.getSize() == null ? 0 : resource.getSize(),
+                            resource.getModifiedAt() == null ? ZonedDateTime.now() : resource.getModifiedAt().atZone(ZoneOffset.UTC)));
         }
 
-        return resourcesNames;
+        return streamFilesInFolder(path)
+                .map(file -> new ArchiveObject(file.objectName(), file.objectName(), file.size(), file.lastModified()));
+    }
+
+    public ResourceListPage getContent(String path, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                       Sort.Direction direction, String cursor, Integer limit) {
+        String queryKey = String.join("|", String.valueOf(type), sortField.name(), direction.name(),
+                String.valueOf(cursor), String.valueOf(limit));
+
+        return listingCache.get(pathProcessor.getUserId(path), path, queryKey,
+                () -> loadContent(path, type, sortField, direction, cursor, limit));
     }
 
-    public List<ResourceInfoDto> getContent(String path) {
-        List<Item> objects = minioService.getListObjects(path, false);
+    private ResourceListPage loadContent(String path, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                         Sort.Direction direction, String cursor, Integer limit) {
+        ListingCursor after = cursor == null ? null : ListingCursor.decode(cursor, sortField, direction);
+        Integer fetchLimit = limit == null ? null : limit + 1;
+        List<ResourceMetadata> children = resourceIndexService.getChildren(path, type, sortField, direction, after, fetchLimit);
 
-        if (objects.isEmpty() && !minioService.isFolderExists(path)) {
+        if (after == null && children.isEmpty() && !resourceIndexService.isFolderExists(path)) {
             log.warn("Attempted to get content of a non-existent folder: {}", path);
             throw new ResourceNotFoundException("The folder with the path %s could not be found".formatted(path));
         }
 
+        String nextCursor = null;
+
+        if (limit != null && children.size() > limit) {
+            children = children.subList(0, limit);
+            nextCursor = ListingCursor.after(children.get(limit - 1), sortField, direction).encode();
+        }
+
         List<ResourceInfoDto> resources = new ArrayList<>();
 
-        for (Item object : objects) {
-            String resourceName = object.objectName();
-            ResourceInfoDto resourceInfoDto;
+        for (ResourceMetadata child : children) {
+            resources.add(resourceMapper.toInfoDto(child));
+        }
 
-            if (resourceName.endsWith("/") && object.isDir()) {
-                resourceInfoDto = resourceMapper.toFolderInfoDto(object.objectName());
-                resources.add(resourceInfoDto);
-            } else if (!resourceName.endsWith("/")) {
-                resourceInfoDto = resourceMapper.toFileInfoDto(object);
-                resources.add(resourceInfoDto);
-            }
+        return new ResourceListPage(resources, nextCursor);
+    }
+
+    public ResourceInfoSource streamContent(String path, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                            Sort.Direction direction, String cursor, Integer limit) {
+        ListingCursor after = cursor == null ? null : ListingCursor.decode(cursor, sortField, direction);
+
+        if (!resourceIndexService.isFolderExists(path)) {
+            log.warn("Attempted to stream content of a non-existent folder: {}", path);
+            throw new ResourceNotFoundException("The folder with the path %s could not be found".formatted(path));
         }
 
-        return resources;
+        return consumer -> resourceIndexService.forEachChild(path, type, sortField, direction, after, limit,
+                child -> consumer.accept(resourceMapper.toInfoDto(child)));
     }
 
     public ResourceInfoDto create(String path, int userId) {
@@ -117,12 +167,18 @@ public class FolderResourceService implements ResourceServiceInterface {
         String newFolderName = pathProcessor.getLastFolderName(path);
         String parentFolderPath = pathProcessor.getPathWithoutLastFolder(path, newFolderName);
 
-        if (!parentFolderPath.equals(userRootFolder) && !minioService.isFolderExists(parentFolderPath)) {
+        if (!parentFolderPath.equals(userRootFolder) && !resourceIndexService.isFolderExists(parentFolderPath)) {
             log.error("Attempt to create folder in a non-existent parent folder: {}", parentFolderPath);
             throw new ResourceNotFoundException("The parent folder doesn't exist");
         }
 
         minioService.createEmptyFolder(path, true);
+        resourceIndexService.addFolder(path);
         return resourceMapper.toFolderInfoDto(path);
     }
+
+    private Stream<Item> streamFilesInFolder(String path) {
+        return minioService.streamListObjects(path, true)
+                .filter(object -> !object.isDir());
+    }
 }
@@ -1,11 +1,14 @@
 package dev.anton_kulakov.service;
 
+import com.google.common.collect.Iterables;
+import dev.anton_kulakov.concurrent.FanOutExecutor;
 import dev.anton_kulakov.exception.MinioException;
 import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
 import dev.anton_kulakov.exception.ResourceNotFoundException;
 import dev.anton_kulakov.util.PathProcessor;
 import io.minio.*;
 import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
 import io.minio.messages.DeleteError;
 import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
@@ -14,22 +17,39 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MinioService {
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     private final MinioClient minioClient;
 
     @Value("${minio.bucket-name}")
     private String bucketName;
 
+    @Value("${minio.upload.multipart-threshold}")
+    private DataSize multipartThreshold;
+
+    @Value("${minio.delete.concurrency}")
+    private int deleteConcurrency;
+
     private final PathProcessor pathProcessor;
+    private final MultipartUploader multipartUploader;
+    private final FanOutExecutor fanOutExecutor;
 
     @PostConstruct
     private void createBucketIfNotExists() {
@@ -68,24 +88,25 @@ public class MinioService {
         }
     }
 
-    public List<Item> getListObjects(String path, boolean isRecursive) {
-        List<Item> results = new ArrayList<>();
-
+    public Stream<Item> streamListObjects(String path, boolean isRecursive) {
         Iterable<Result<Item>> objects = minioClient.listObjects(ListObjectsArgs.builder()
                 .bucket(bucketName)
                 .prefix(path)
                 .recursive(isRecursive)
                 .build());
 
-        for (Result<Item> object : objects) {
-            try {
-                results.add(object.get());
-            } catch (Exception e) {
-                log.warn("Could not retrieve one of the items in bucket '{}' with path '{}'. Skipping it.", bucketName, path, e);
-            }
-        }
+        return StreamSupport.stream(objects.spliterator(), false)
+                .map(object -> getListedItem(object, path))
+                .filter(Objects::nonNull);
+    }
 
-        return results;
+    private Item getListedItem(Result<Item> object, String path) {
+        try {
+            return object.get();
+        } catch (Exception e) {
+            log.warn("Could not retrieve one of the items in bucket '{}' with path '{}'. Skipping it.", bucketName, path, e);
+            return null;
+        }
     }
 
     public void removeObject(String path) {
@@ -100,7 +121,11 @@ public class MinioService {
         }
     }
 
-    public void removeObjects(List<DeleteObject> objects) {
+    public void removeObjects(Iterable<DeleteObject> objects) {
+        fanOutExecutor.forEach(Iterables.partition(objects, DELETE_BATCH_SIZE), deleteConcurrency, this::removeBatch);
+    }
+
+    private void removeBatch(List<DeleteObject> objects) {
         Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
                 .bucket(bucketName)
                 .objects(objects)
@@ -117,6 +142,30 @@ public class MinioService {
         }
     }
 
+    public List<String> tryRemoveObjects(List<String> objectNames) {
+        List<DeleteObject> objects = objectNames.stream()
+                .map(DeleteObject::new)
+                .toList();
+        Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(objects)
+                .build());
+        List<String> notRemoved = new ArrayList<>();
+
+        try {
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                log.warn("Failed to delete object '{}' in bucket '{}'. Reason: {}", error.objectName(), error.bucketName(), error.message());
+                notRemoved.add(error.objectName());
+            }
+        } catch (Exception e) {
+            log.error("A critical error occurred during batch deletion from bucket '{}'", bucketName, e);
+            return objectNames;
+        }
+
+        return notRemoved;
+    }
+
     public void copy(String from, String to) {
         try {
             StatObjectResponse statObjectResponse = minioClient.statObject(StatObjectArgs.builder()
@@ -169,14 +218,47 @@ public class MinioService {
         }
     }
 
-    public void upload(String fullObjectPath, MultipartFile file, boolean preventOverwrite) {
+    public InputStream getObject(String resourceName, long offset, long length) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(resourceName)
+                    .offset(offset)
+                    .length(length)
+                    .build());
+        } catch (Exception e) {
+            log.error("Failed to get {} bytes at offset {} of object '{}' from bucket '{}'", length, offset, resourceName, bucketName, e);
+            throw new MinioException("Failed to get input stream");
+        }
+    }
+
+    public String getPresignedObjectUrl(Method method, String objectKey, Duration expiry, Map<String, String> queryParams) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucketName)
+                    .object(objectKey)
+                    .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraQueryParams(queryParams)
+                    .build());
+        } catch (Exception e) {
+            log.error("Failed to presign {} of object '{}' in bucket '{}'", method, objectKey, bucketName, e);
+            throw new MinioException("Failed to create a presigned URL");
+        }
+    }
+
+    public ObjectWriteResponse upload(String fullObjectPath, MultipartFile file, boolean preventOverwrite) {
+        if (file.getSize() >= multipartThreshold.toBytes()) {
+            return uploadInParts(fullObjectPath, file, preventOverwrite);
+        }
+
         try {
             HashMap<String, String> headers = new HashMap<>();
             if (preventOverwrite) {
                 headers.put("If-None-Match", "*");
             }
 
-            minioClient.putObject(PutObjectArgs.builder()
+            return minioClient.putObject(PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(fullObjectPath)
                     .stream(file.getInputStream(), file.getSize(), -1)
@@ -195,6 +277,26 @@ public class MinioService {
         }
     }
 
+    public ObjectWriteResponse upload(String fullObjectPath, InputStream inputStream, String contentType, boolean preventOverwrite) {
+        if (preventOverwrite && isFileExists(fullObjectPath)) {
+            throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(fullObjectPath));
+        }
+
+        return multipartUploader.upload(fullObjectPath, inputStream, contentType, preventOverwrite);
+    }
+
+    private ObjectWriteResponse uploadInParts(String fullObjectPath, MultipartFile file, boolean preventOverwrite) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return upload(fullObjectPath, inputStream, file.getContentType(), preventOverwrite);
+        } catch (IOException e) {
+            log.error("Upload failed for '{}'", fullObjectPath, e);
+            throw new MinioException("Upload failed");
+        } catch (UncheckedIOException e) {
+            log.error("Upload failed for '{}'", fullObjectPath, e.getCause());
+            throw new MinioException("Upload failed");
+        }
+    }
+
     public boolean isFileExists(String path) {
         try {
             minioClient.statObject(StatObjectArgs.builder()
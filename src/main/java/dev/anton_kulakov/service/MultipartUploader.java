@@ -0,0 +1,407 @@
+package dev.anton_kulakov.service;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import dev.anton_kulakov.config.MultipartMinioClient;
+import dev.anton_kulakov.exception.InvalidUploadRequestException;
+import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MultipartUploader {
+    public static final int MAX_PARTS_COUNT = 10_000;
+    private static final Duration PART_URL_EXPIRY = Duration.ofMinutes(5);
+    private static final int PART_BUFFER_SIZE = 64 * 1024;
+
+    private final MultipartMinioClient multipartMinioClient;
+    private final OkHttpClient minioHttpClient;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    @Value("${minio.upload.part-size}")
+    private DataSize partSize;
+
+    @Value("${minio.upload.concurrency}")
+    private int concurrency;
+
+    @Value("${minio.upload.max-buffered-parts}")
+    private int maxBufferedParts;
+
+    private Semaphore partBuffers;
+
+    @PostConstruct
+    private void createPartBuffers() {
+        partBuffers = new Semaphore(maxBufferedParts, true);
+    }
+
+    public ObjectWriteResponse upload(String objectName, InputStream inputStream, String contentType, boolean preventOverwrite) {
+        int partSizeInBytes = (int) partSize.toBytes();
+        String uploadId = null;
+        boolean holdsFirstPartBuffer = false;
+
+        try {
+            partBuffers.acquire();
+            holdsFirstPartBuffer = true;
+            byte[] firstChunk = readChunk(inputStream, partSizeInBytes);
+
+            if (firstChunk.length < partSizeInBytes) {
+                return putSinglePart(objectName, firstChunk, contentType, preventOverwrite);
+            }
+
+            uploadId = await(multipartMinioClient.startUpload(bucketName, objectName, contentTypeHeaders(contentType)));
+            holdsFirstPartBuffer = false;
+            return uploadParts(objectName, uploadId, firstChunk, inputStream, partSizeInBytes, preventOverwrite);
+        } catch (UncheckedIOException e) {
+            abort(objectName, uploadId);
+            throw e;
+        } catch (ErrorResponseException e) {
+            abort(objectName, uploadId);
+
+            if (preventOverwrite && "PreconditionFailed".equals(e.errorResponse().code())) {
+                throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(objectName));
+            }
+            log.error("Multipart upload failed for '{}'", objectName, e);
+            throw new MinioException("Upload failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(objectName, uploadId);
+            log.error("Multipart upload of '{}' was interrupted", objectName, e);
+            throw new MinioException("Upload was interrupted");
+        } catch (Exception e) {
+            abort(objectName, uploadId);
+            log.error("Multipart upload failed for '{}'", objectName, e);
+            throw new MinioException("Upload failed");
+        } finally {
+            if (holdsFirstPartBuffer) {
+                partBuffers.release();
+            }
+        }
+    }
+
+    private ObjectWriteResponse uploadParts(String objectName, String uploadId, byte[] firstChunk, InputStream inputStream,
+                             int partSizeInBytes, boolean preventOverwrite) throws Exception {
+        Semaphore inFlightParts = new Semaphore(concurrency);
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        List<CompletableFuture<Part>> pendingParts = new ArrayList<>();
+        byte[] chunk = firstChunk;
+        long uploadedBytes = 0;
+        int partNumber = 1;
+        // Each chunk is backed by a permit shared by all uploads, handed over by upload for the first one
+        boolean holdsPartBuffer = true;
+
+        try {
+            inFlightParts.acquire();
+
+            while (chunk.length > 0) {
+                if (partNumber > MAX_PARTS_COUNT) {
+                    throw new MinioException("Upload exceeds the maximum number of parts");
+                }
+
+                CompletableFuture<Part> part = multipartMinioClient.sendPart(bucketName, objectName, uploadId, partNumber, chunk, chunk.length);
+                part.whenComplete((result, error) -> {
+                    if (error != null) {
+                        firstFailure.compareAndSet(null, error);
+                    }
+                    inFlightParts.release();
+                    partBuffers.release();
+                });
+                holdsPartBuffer = false;
+                pendingParts.add(part);
+
+                uploadedBytes += chunk.length;
+                partNumber++;
+
+                inFlightParts.acquire();
+                if (firstFailure.get() != null) {
+                    await(CompletableFuture.failedFuture(firstFailure.get()));
+                }
+                partBuffers.acquire();
+                holdsPartBuffer = true;
+                chunk = readChunk(inputStream, partSizeInBytes);
+            }
+        } finally {
+            if (holdsPartBuffer) {
+                partBuffers.release();
+            }
+        }
+
+        inFlightParts.release();
+
+        Part[] parts = new Part[pendingParts.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = await(pendingParts.get(i));
+        }
+
+        ObjectWriteResponse response = await(multipartMinioClient.finishUpload(bucketName, objectName, uploadId, parts,
+                overwriteHeaders(preventOverwrite)));
+
+        log.info("Uploaded '{}' in parts of {} bytes, total size {} bytes", objectName, partSizeInBytes, uploadedBytes);
+        return response;
+    }
+
+    public String initiate(String objectName, String contentType) {
+        try {
+            return await(multipartMinioClient.startUpload(bucketName, objectName, contentTypeHeaders(contentType)));
+        } catch (Exception e) {
+            log.error("Failed to start multipart upload for '{}'", objectName, e);
+            throw new MinioException("Failed to start upload");
+        }
+    }
+
+    public Part uploadPart(String objectName, String uploadId, int partNumber, InputStream content, long contentLength) {
+        // The part is streamed to a presigned URL so that its body never has to be held in memory
+        PartRequestBody body = new PartRequestBody(content, contentLength);
+        Request request = new Request.Builder()
+                .url(getPresignedPartUrl(objectName, uploadId, partNumber, PART_URL_EXPIRY))
+                .put(body)
+                .build();
+
+        try (Response response = minioHttpClient.newCall(request).execute()) {
+            if (response.code() == HttpStatus.NOT_FOUND.value()) {
+                throw new ResourceNotFoundException("The upload has already been completed or aborted");
+            }
+
+            if (!response.isSuccessful()) {
+                log.error("Failed to upload part {} of '{}', the storage responded with status {}", partNumber, objectName, response.code());
+                throw new MinioException("Failed to upload part");
+            }
+
+            return new Part(partNumber, response.header(HttpHeaders.ETAG));
+        } catch (IOException e) {
+            if (body.readFailure instanceof EOFException) {
+                throw new InvalidUploadRequestException("The part body is shorter than its Content-Length");
+            }
+
+            if (body.readFailure != null) {
+                log.warn("Failed to read the body of part {} of '{}'", partNumber, objectName, body.readFailure);
+                throw new InvalidUploadRequestException("Failed to read the part body");
+            }
+            log.error("Failed to upload part {} of '{}'", partNumber, objectName, e);
+            throw new MinioException("Failed to upload part");
+        }
+    }
+
+    public String getPresignedPartUrl(String objectName, String uploadId, int partNumber, Duration expiry) {
+        try {
+            return multipartMinioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(Method.PUT)
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraQueryParams(Map.of("uploadId", uploadId, "partNumber", String.valueOf(partNumber)))
+                    .build());
+        } catch (Exception e) {
+            log.error("Failed to presign part {} of '{}'", partNumber, objectName, e);
+            throw new MinioException("Failed to create a presigned URL");
+        }
+    }
+
+    public List<Part> listParts(String objectName, String uploadId) {
+        List<Part> parts = new ArrayList<>();
+        int partNumberMarker = 0;
+
+        try {
+            ListPartsResult page;
+
+            do {
+                page = await(multipartMinioClient.listUploadedParts(bucketName, objectName, uploadId, partNumberMarker));
+                parts.addAll(page.partList());
+                partNumberMarker = page.nextPartNumberMarker();
+            } while (page.isTruncated());
+
+            return parts;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchUpload".equals(e.errorResponse().code())) {
+                throw new ResourceNotFoundException("The upload has already been completed or aborted");
+            }
+            log.error("Failed to list the parts of '{}'", objectName, e);
+            throw new MinioException("Failed to list uploaded parts");
+        } catch (Exception e) {
+            log.error("Failed to list the parts of '{}'", objectName, e);
+            throw new MinioException("Failed to list uploaded parts");
+        }
+    }
+
+    public void complete(String objectName, String uploadId, Part[] parts, boolean preventOverwrite) {
+        try {
+            await(multipartMinioClient.finishUpload(bucketName, objectName, uploadId, parts, overwriteHeaders(preventOverwrite)));
+        } catch (ErrorResponseException e) {
+            String errorCode = e.errorResponse().code();
+
+            if ("NoSuchUpload".equals(errorCode)) {
+                throw new ResourceNotFoundException("The upload has already been completed or aborted");
+            }
+
+            if (preventOverwrite && "PreconditionFailed".equals(errorCode)) {
+                throw new ResourceAlreadyExistsException("Resource already exists: %s".formatted(objectName));
+            }
+
+            if ("EntityTooSmall".equals(errorCode) || "InvalidPart".equals(errorCode) || "InvalidPartOrder".equals(errorCode)) {
+                log.warn("Rejected parts when completing upload of '{}': {}", objectName, e.errorResponse().message());
+                throw new InvalidUploadRequestException("The uploaded parts are invalid: %s".formatted(e.errorResponse().message()));
+            }
+            log.error("Failed to complete multipart upload of '{}'", objectName, e);
+            throw new MinioException("Failed to complete upload");
+        } catch (Exception e) {
+            log.error("Failed to complete multipart upload of '{}'", objectName, e);
+            throw new MinioException("Failed to complete upload");
+        }
+    }
+
+    private ObjectWriteResponse putSinglePart(String objectName, byte[] content, String contentType, boolean preventOverwrite) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        if (preventOverwrite) {
+            headers.put("If-None-Match", "*");
+        }
+
+        return await(multipartMinioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .stream(new ByteArrayInputStream(content), content.length, -1)
+                .contentType(contentType)
+                .headers(headers)
+                .build()));
+    }
+
+    public void abort(String objectName, String uploadId) {
+        if (uploadId == null) {
+            return;
+        }
+
+        try {
+            await(multipartMinioClient.cancelUpload(bucketName, objectName, uploadId));
+            log.info("Aborted multipart upload '{}' for '{}'", uploadId, objectName);
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart upload '{}' for '{}'. Orphaned parts will be left in bucket '{}'", uploadId, objectName, bucketName, e);
+        }
+    }
+
+    private static Multimap<String, String> contentTypeHeaders(String contentType) {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        return headers;
+    }
+
+    private static Multimap<String, String> overwriteHeaders(boolean preventOverwrite) {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (preventOverwrite) {
+            headers.put("If-None-Match", "*");
+        }
+        return headers;
+    }
+
+    private static byte[] readChunk(InputStream inputStream, int chunkSize) {
+        try {
+            return inputStream.readNBytes(chunkSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class PartRequestBody extends RequestBody {
+        private final InputStream content;
+        private final long contentLength;
+        private IOException readFailure;
+
+        private PartRequestBody(InputStream content, long contentLength) {
+            this.content = content;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            byte[] buffer = new byte[PART_BUFFER_SIZE];
+            long remaining = contentLength;
+
+            while (remaining > 0) {
+                int read = read(buffer, (int) Math.min(buffer.length, remaining));
+                sink.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+
+        private int read(byte[] buffer, int length) throws IOException {
+            try {
+                int read = content.read(buffer, 0, length);
+
+                if (read < 0) {
+                    throw new EOFException("The part body ended before its Content-Length");
+                }
+
+                return read;
+            } catch (IOException e) {
+                readFailure = e;
+                throw e;
+            }
+        }
+    }
+}
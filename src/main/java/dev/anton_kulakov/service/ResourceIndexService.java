@@ -0,0 +1,424 @@
+package dev.anton_kulakov.service;
+
+import dev.anton_kulakov.cache.MetadataCache;
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.model.ResourceIndexState;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.repository.BlobRepository;
+import dev.anton_kulakov.repository.ResourceIndexStateRepository;
+import dev.anton_kulakov.repository.ResourceMetadataRepository;
+import dev.anton_kulakov.util.ListingCursor;
+import dev.anton_kulakov.util.PathProcessor;
+import io.minio.StatObjectResponse;
+import io.minio.messages.Item;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResourceIndexService {
+    private static final int DESCENDANTS_PAGE_SIZE = 500;
+
+    private final ResourceMetadataRepository resourceMetadataRepository;
+    private final ResourceIndexStateRepository resourceIndexStateRepository;
+    private final BlobRepository blobRepository;
+    private final MinioService minioService;
+    private final PathProcessor pathProcessor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final MetadataCache metadataCache;
+
+    @Transactional
+    public Optional<ResourceMetadata> findFile(String path) {
+        ensureIndexed(pathProcessor.getUserId(path));
+        return resourceMetadataRepository.findByPathAndType(path, ResourceTypeEnum.FILE);
+    }
+
+    @Transactional
+    public boolean isFileExists(String path) {
+        return metadataCache.isFileExists(path, key -> {
+            ensureIndexed(pathProcessor.getUserId(key));
+            return resourceMetadataRepository.existsByPathAndType(key, ResourceTypeEnum.FILE);
+        });
+    }
+
+    @Transactional
+    public boolean isFolderExists(String path) {
+        return metadataCache.isFolderExists(path, key -> {
+            ensureIndexed(pathProcessor.getUserId(key));
+            return resourceMetadataRepository.existsByPathAndType(key, ResourceTypeEnum.DIRECTORY);
+        });
+    }
+
+    @Transactional
+    public List<ResourceMetadata> getChildren(String folderPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField,
+                                              Sort.Direction direction, ListingCursor after, Integer limit) {
+        ensureIndexed(pathProcessor.getUserId(folderPath));
+        return resourceMetadataRepository.findChildren(folderPath, type, sortField, direction, after, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachChild(String folderPath, ResourceTypeEnum type, ResourceSortFieldEnum sortField, Sort.Direction direction,
+                             ListingCursor after, Integer limit, Consumer<ResourceMetadata> consumer) {
+        try (Stream<ResourceMetadata> children = resourceMetadataRepository.streamChildren(folderPath, type, sortField,
+                direction, after, limit)) {
+            forEachDetached(children, consumer);
+        }
+    }
+
+    @Transactional
+    public void forEachSearchResult(int userId, String query, Integer limit, Consumer<ResourceMetadata> consumer) {
+        ensureIndexed(userId);
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        String escapedQuery = escapeLike(lowerCaseQuery);
+
+        try (Stream<ResourceMetadata> results = resourceMetadataRepository.streamByName(userId, lowerCaseQuery,
+                "%" + escapedQuery + "%", escapedQuery + "%", limit == null ? Integer.MAX_VALUE : limit, 0)) {
+            forEachDetached(results, consumer);
+        }
+    }
+
+    @Transactional
+    public List<ResourceMetadata> search(int userId, String query, int page, int size) {
+        ensureIndexed(userId);
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        String escapedQuery = escapeLike(lowerCaseQuery);
+
+        return resourceMetadataRepository.searchByName(userId, lowerCaseQuery, "%" + escapedQuery + "%",
+                escapedQuery + "%", size, (long) page * size);
+    }
+
+    public Stream<ResourceMetadata> streamDescendants(String folderPath) {
+        String pattern = escapeLike(folderPath) + "%";
+
+        return Stream.iterate(findDescendantsAfter(pattern, folderPath), page -> !page.isEmpty(),
+                        page -> page.size() < DESCENDANTS_PAGE_SIZE
+                                ? List.of()
+                                : findDescendantsAfter(pattern, page.get(page.size() - 1).getPath()))
+                .flatMap(List::stream);
+    }
+
+    @Transactional
+    public List<ResourceMetadata> getAll(int userId) {
+        ensureIndexed(userId);
+        return resourceMetadataRepository.findAllByUserIdAndParentPathNot(userId, "");
+    }
+
+    @Transactional
+    public void addFile(String path, long size, String etag, Instant modifiedAt) {
+        int userId = pathProcessor.getUserId(path);
+        indexFile(userId, path, size, etag, modifiedAt);
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.FILE_ADDED, userId, path, size));
+    }
+
+    @Transactional
+    public boolean addBlobFile(String path, long size, String hash, Instant modifiedAt) {
+        int userId = pathProcessor.getUserId(path);
+        int inserted = resourceMetadataRepository.insertBlobFile(userId, path, pathProcessor.getParentPath(path),
+                pathProcessor.getFileName(path), size, hash, modifiedAt);
+
+        if (inserted == 0) {
+            return false;
+        }
+
+        addAncestors(userId, pathProcessor.getParentPath(path));
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.FILE_ADDED, userId, path, size));
+        return true;
+    }
+
+    @Transactional
+    public void addFolder(String path) {
+        int userId = pathProcessor.getUserId(path);
+        addAncestors(userId, path);
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.FOLDER_ADDED, userId, path, null));
+    }
+
+    @Transactional
+    public void syncFile(String path) {
+        int userId = pathProcessor.getUserId(path);
+
+        if (!resourceIndexStateRepository.existsById(userId)) {
+            return;
+        }
+
+        Optional<ResourceMetadata> indexedFile = resourceMetadataRepository.findByPathAndType(path, ResourceTypeEnum.FILE);
+
+        if (indexedFile.map(ResourceMetadata::getBlobHash).isPresent()) {
+            return;
+        }
+
+        StatObjectResponse statObject;
+
+        try {
+            statObject = minioService.getStatObject(path);
+        } catch (ResourceNotFoundException e) {
+            if (indexedFile.isPresent()) {
+                remove(path);
+            }
+            return;
+        }
+
+        boolean isUpToDate = indexedFile
+                .filter(file -> Objects.equals(file.getEtag(), normalizeEtag(statObject.etag())))
+                .filter(file -> Objects.equals(file.getSize(), statObject.size()))
+                .isPresent();
+
+        if (!isUpToDate) {
+            addFile(path, statObject.size(), statObject.etag(), statObject.lastModified().toInstant());
+        }
+    }
+
+    @Transactional
+    public void syncFile(String path, String etag, long size) {
+        boolean isUpToDate = resourceMetadataRepository.findByPathAndType(path, ResourceTypeEnum.FILE)
+                .filter(file -> Objects.equals(file.getEtag(), normalizeEtag(etag)))
+                .filter(file -> Objects.equals(file.getSize(), size))
+                .isPresent();
+
+        if (!isUpToDate) {
+            syncFile(path);
+        }
+    }
+
+    @Transactional
+    public void syncRemovedFile(String path) {
+        if (resourceMetadataRepository.existsByPathAndType(path, ResourceTypeEnum.FILE)) {
+            syncFile(path);
+        }
+    }
+
+    @Transactional
+    public void syncFolder(String path) {
+        int userId = pathProcessor.getUserId(path);
+
+        if (resourceIndexStateRepository.existsById(userId)
+                && !resourceMetadataRepository.existsByPathAndType(path, ResourceTypeEnum.DIRECTORY)) {
+            addFolder(path);
+        }
+    }
+
+    @Transactional
+    public void syncRemovedFolder(String path) {
+        int userId = pathProcessor.getUserId(path);
+
+        if (!resourceIndexStateRepository.existsById(userId)
+                || path.equals(pathProcessor.getUserRootFolder(userId))
+                || !resourceMetadataRepository.existsByPathAndType(path, ResourceTypeEnum.DIRECTORY)
+                || minioService.isFolderExists(path)) {
+            return;
+        }
+
+        // Deduplicated files have no object at their own path, so the folder is still in use while it holds any of them
+        try (Stream<ResourceMetadata> descendants = streamDescendants(path)) {
+            if (descendants.anyMatch(resource -> resource.getBlobHash() != null)) {
+                return;
+            }
+        }
+
+        remove(path);
+    }
+
+    @Transactional
+    public void reconcile(int userId) {
+        if (!resourceIndexStateRepository.existsById(userId)) {
+            return;
+        }
+
+        Map<String, ResourceMetadata> staleResources = new HashMap<>();
+
+        for (ResourceMetadata resource : resourceMetadataRepository.findAllByUserIdAndParentPathNot(userId, "")) {
+            staleResources.put(resource.getPath(), resource);
+        }
+
+        for (ResourceMetadata resource : List.copyOf(staleResources.values())) {
+            if (resource.getBlobHash() != null) {
+                keep(staleResources, resource.getPath());
+            }
+        }
+
+        long changedResources = 0;
+
+        try (Stream<Item> objects = minioService.streamListObjects(pathProcessor.getUserRootFolder(userId), true)) {
+            Iterator<Item> iterator = objects.iterator();
+
+            while (iterator.hasNext()) {
+                Item object = iterator.next();
+                String path = object.objectName();
+                ResourceMetadata indexedResource = staleResources.get(path);
+                keep(staleResources, path);
+
+                if (path.endsWith("/")) {
+                    if (indexedResource == null) {
+                        addAncestors(userId, path);
+                        changedResources++;
+                    }
+                    continue;
+                }
+
+                boolean isUpToDate = indexedResource != null
+                        && indexedResource.getType() == ResourceTypeEnum.FILE
+                        && Objects.equals(indexedResource.getEtag(), normalizeEtag(object.etag()))
+                        && Objects.equals(indexedResource.getSize(), object.size());
+
+                if (!isUpToDate) {
+                    indexFile(userId, path, object.size(), object.etag(), object.lastModified().toInstant());
+                    changedResources++;
+                }
+            }
+        }
+
+        resourceMetadataRepository.deleteAllInBatch(staleResources.values());
+        changedResources += staleResources.size();
+
+        if (changedResources > 0) {
+            eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.REINDEXED, userId,
+                    pathProcessor.getUserRootFolder(userId), null));
+            log.info("Reconciled {} resources of user {} with the bucket", changedResources, userId);
+        }
+    }
+
+    public List<Integer> getIndexedUserIds() {
+        return resourceIndexStateRepository.findAll().stream()
+                .map(ResourceIndexState::getUserId)
+                .toList();
+    }
+
+    @Transactional
+    public void addUserRootFolder(int userId) {
+        addFolder(pathProcessor.getUserRootFolder(userId));
+        resourceIndexStateRepository.insertIfAbsent(userId, Instant.now());
+    }
+
+    @Transactional
+    public void remove(String path) {
+        int userId = pathProcessor.getUserId(path);
+
+        if (path.endsWith("/")) {
+            blobRepository.releaseByPathLike(escapeLike(path) + "%");
+            resourceMetadataRepository.deleteByPathLike(escapeLike(path) + "%");
+            eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.FOLDER_REMOVED, userId, path, null));
+            return;
+        }
+
+        blobRepository.releaseByPathLike(escapeLike(path));
+        resourceMetadataRepository.deleteByPath(path);
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.FILE_REMOVED, userId, path, null));
+    }
+
+    @Transactional
+    public void move(String from, String to) {
+        if (from.endsWith("/")) {
+            resourceMetadataRepository.moveDescendants(from, escapeLike(from) + "%", from.length(), to);
+        }
+
+        String parentPath = pathProcessor.getParentPath(to);
+        String name = to.endsWith("/") ? pathProcessor.getLastFolderName(to) : pathProcessor.getFileName(to);
+        resourceMetadataRepository.move(from, to, parentPath, name);
+
+        int userId = pathProcessor.getUserId(to);
+        addAncestors(userId, parentPath);
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.MOVED, userId, from, null));
+    }
+
+    private void ensureIndexed(int userId) {
+        if (resourceIndexStateRepository.existsById(userId)) {
+            return;
+        }
+
+        String userRootFolder = pathProcessor.getUserRootFolder(userId);
+        long indexedObjects = 0;
+
+        try (Stream<Item> objects = minioService.streamListObjects(userRootFolder, true)) {
+            Iterator<Item> iterator = objects.iterator();
+
+            while (iterator.hasNext()) {
+                Item object = iterator.next();
+
+                if (object.objectName().endsWith("/")) {
+                    addAncestors(userId, object.objectName());
+                } else {
+                    indexFile(userId, object.objectName(), object.size(), object.etag(), object.lastModified().toInstant());
+                }
+
+                indexedObjects++;
+            }
+        }
+
+        resourceIndexStateRepository.insertIfAbsent(userId, Instant.now());
+        eventPublisher.publishEvent(new ResourceChangedEvent(ResourceChangedEvent.ChangeType.REINDEXED, userId,
+                userRootFolder, null));
+        log.info("Indexed {} existing objects of user {}", indexedObjects, userId);
+    }
+
+    private List<ResourceMetadata> findDescendantsAfter(String pattern, String afterPath) {
+        return resourceMetadataRepository.findDescendantsAfter(pattern, afterPath, Limit.of(DESCENDANTS_PAGE_SIZE));
+    }
+
+    private void forEachDetached(Stream<ResourceMetadata> resources, Consumer<ResourceMetadata> consumer) {
+        resources.forEach(resource -> {
+            entityManager.detach(resource);
+            consumer.accept(resource);
+        });
+    }
+
+    private void indexFile(int userId, String path, long size, String etag, Instant modifiedAt) {
+        resourceMetadataRepository.upsertFile(userId, path, pathProcessor.getParentPath(path),
+                pathProcessor.getFileName(path), size, normalizeEtag(etag), modifiedAt);
+        addAncestors(userId, pathProcessor.getParentPath(path));
+    }
+
+    private void keep(Map<String, ResourceMetadata> staleResources, String path) {
+        String keptPath = path;
+
+        while (!keptPath.isEmpty()) {
+            staleResources.remove(keptPath);
+            keptPath = pathProcessor.getParentPath(keptPath);
+        }
+    }
+
+    private void addAncestors(int userId, String folderPath) {
+        String path = folderPath;
+
+        while (!path.isEmpty()) {
+            int inserted = resourceMetadataRepository.insertFolderIfAbsent(userId, path,
+                    pathProcessor.getParentPath(path), pathProcessor.getLastFolderName(path));
+
+            if (inserted == 0) {
+                return;
+            }
+
+            path = pathProcessor.getParentPath(path);
+        }
+    }
+
+    private static String normalizeEtag(String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
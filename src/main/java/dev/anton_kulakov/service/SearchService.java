@@ -2,55 +2,40 @@ package dev.anton_kulakov.service;
 
 import dev.anton_kulakov.dto.ResourceInfoDto;
 import dev.anton_kulakov.mapper.ResourceMapper;
-import dev.anton_kulakov.util.PathProcessor;
-import io.minio.messages.Item;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.search.NameIndexCache;
+import dev.anton_kulakov.streaming.ResourceInfoSource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class SearchService {
-    private final PathProcessor pathProcessor;
-    private final MinioService minioService;
+    private final ResourceIndexService resourceIndexService;
+    private final NameIndexCache nameIndexCache;
     private final ResourceMapper resourceMapper;
 
-    public List<ResourceInfoDto> search(int userId, String query) {
-        String userRootFolder = pathProcessor.getUserRootFolder(userId);
-        List<String> foldersToSearch = new ArrayList<>();
-        List<ResourceInfoDto> resourcesFound = new ArrayList<>();
-        foldersToSearch.add(userRootFolder);
-
-        while (!foldersToSearch.isEmpty()) {
-            String folderToSearch = foldersToSearch.get(foldersToSearch.size() - 1);
-            List<Item> objects = minioService.getListObjects(folderToSearch, false);
-            foldersToSearch.remove(folderToSearch);
-
-            for (Item object : objects) {
-                ResourceInfoDto resourceInfoDto;
-                String objectName = object.objectName();
-
-                if (objectName.endsWith("/") && object.isDir()) {
-                    foldersToSearch.add(objectName);
-                    resourceInfoDto = resourceMapper.toFolderInfoDto(objectName);
-                    addIfMatchesQuery(query, objectName, resourcesFound, resourceInfoDto);
-                } else if (!objectName.endsWith("/")) {
-                    resourceInfoDto = resourceMapper.toFileInfoDto(object);
-                    addIfMatchesQuery(query, objectName, resourcesFound, resourceInfoDto);
-                }
-            }
-        }
+    public List<ResourceInfoDto> search(int userId, String query, int page, int size) {
+        List<ResourceMetadata> resources = nameIndexCache.search(userId, query, page, size)
+                .orElseGet(() -> resourceIndexService.search(userId, query, page, size));
 
-        return resourcesFound;
+        return resources.stream()
+                .map(resourceMapper::toInfoDto)
+                .toList();
     }
 
-    private void addIfMatchesQuery(String query, String objectName, List<ResourceInfoDto> resourcesFound, ResourceInfoDto resourceInfoDto) {
-        String lowerCaseFolderName = pathProcessor.getLastFolderName(objectName).toLowerCase();
+    public ResourceInfoSource streamSearch(int userId, String query, Integer limit) {
+        Optional<List<ResourceMetadata>> cachedResources = nameIndexCache.search(userId, query, 0,
+                limit == null ? Integer.MAX_VALUE : limit);
 
-        if (lowerCaseFolderName.contains(query)) {
-            resourcesFound.add(resourceInfoDto);
+        if (cachedResources.isPresent()) {
+            return consumer -> cachedResources.get().forEach(resource -> consumer.accept(resourceMapper.toInfoDto(resource)));
         }
+
+        return consumer -> resourceIndexService.forEachSearchResult(userId, query, limit,
+                resource -> consumer.accept(resourceMapper.toInfoDto(resource)));
     }
 }
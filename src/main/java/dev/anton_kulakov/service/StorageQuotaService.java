@@ -0,0 +1,76 @@
+package dev.anton_kulakov.service;
+
+import dev.anton_kulakov.exception.StorageQuotaExceededException;
+import dev.anton_kulakov.model.StorageReservation;
+import dev.anton_kulakov.repository.ResourceMetadataRepository;
+import dev.anton_kulakov.repository.StorageReservationRepository;
+import dev.anton_kulakov.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageQuotaService {
+    private final ResourceMetadataRepository resourceMetadataRepository;
+    private final StorageReservationRepository storageReservationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.quota.per-user}")
+    private DataSize perUserQuota;
+
+    @Value("${storage.quota.reservation-timeout}")
+    private Duration reservationTimeout;
+
+    public long getAvailable(int userId) {
+        return Math.max(0, perUserQuota.toBytes() - getUsed(userId, Instant.now()));
+    }
+
+    public void checkAvailable(int userId, long requiredBytes) {
+        checkAvailable(userId, requiredBytes, getUsed(userId, Instant.now()));
+    }
+
+    public UUID reserve(int userId, long requiredBytes) {
+        // The user row serialises reservations, so two uploads can't both fit into the same free space
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            userRepository.lockById(userId);
+            storageReservationRepository.deleteExpiredByUserId(userId, now);
+            checkAvailable(userId, requiredBytes, getUsed(userId, now));
+
+            StorageReservation reservation = new StorageReservation();
+            reservation.setId(UUID.randomUUID());
+            reservation.setUserId(userId);
+            reservation.setSize(requiredBytes);
+            reservation.setExpiresAt(now.plus(reservationTimeout));
+            storageReservationRepository.save(reservation);
+
+            return reservation.getId();
+        });
+    }
+
+    public void release(UUID reservationId) {
+        storageReservationRepository.deleteById(reservationId);
+    }
+
+    private long getUsed(int userId, Instant now) {
+        return resourceMetadataRepository.sumSizeByUserId(userId) + storageReservationRepository.sumActiveSizeByUserId(userId, now);
+    }
+
+    private void checkAvailable(int userId, long requiredBytes, long usedBytes) {
+        if (usedBytes + requiredBytes > perUserQuota.toBytes()) {
+            log.warn("User {} needs {} bytes but has used {} of {} bytes", userId, requiredBytes, usedBytes, perUserQuota.toBytes());
+            throw new StorageQuotaExceededException("Not enough storage space: %d of %d bytes are used, %d more are required"
+                    .formatted(usedBytes, perUserQuota.toBytes(), requiredBytes));
+        }
+    }
+}
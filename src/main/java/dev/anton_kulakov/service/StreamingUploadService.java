@@ -0,0 +1,163 @@
+package dev.anton_kulakov.service;
+
+import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.exception.InvalidUploadRequestException;
+import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.exception.StorageQuotaExceededException;
+import dev.anton_kulakov.util.PathProcessor;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamingUploadService {
+    private static final String FILE_FIELD_NAME = "object";
+
+    private final FileResourceService fileResourceService;
+    private final StorageQuotaService storageQuotaService;
+    private final PathProcessor pathProcessor;
+
+    @Value("${minio.upload.streaming-max-file-size}")
+    private DataSize maxFileSize;
+
+    public List<ResourceInfoDto> upload(String path, HttpServletRequest request) {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new InvalidUploadRequestException("The request body must be multipart/form-data");
+        }
+
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> fileUpload = new JakartaServletFileUpload<>();
+        fileUpload.setFileSizeMax(maxFileSize.toBytes());
+        List<ResourceInfoDto> uploadedResources = new ArrayList<>();
+        long availableBytes = storageQuotaService.getAvailable(pathProcessor.getUserId(path));
+
+        try {
+            FileItemInputIterator items = fileUpload.getItemIterator(request);
+
+            while (items.hasNext()) {
+                FileItemInput item = items.next();
+
+                if (item.isFormField() || !FILE_FIELD_NAME.equals(item.getFieldName())) {
+                    continue;
+                }
+
+                String fullPath = path + item.getName();
+                QuotaLimitedInputStream quotaLimitedStream = new QuotaLimitedInputStream(item.getInputStream(), availableBytes);
+
+                try (InputStream inputStream = quotaLimitedStream) {
+                    uploadedResources.add(fileResourceService.upload(fullPath, inputStream, item.getContentType()));
+                } catch (RuntimeException e) {
+                    if (quotaLimitedStream.isExceeded()) {
+                        log.warn("Streaming upload of '{}' exceeded the {} bytes left in the storage quota", fullPath, availableBytes);
+                        throw new StorageQuotaExceededException("Not enough storage space: only %d more bytes can be stored"
+                                .formatted(availableBytes));
+                    }
+                    throw e;
+                }
+
+                availableBytes -= quotaLimitedStream.getCount();
+            }
+        } catch (UncheckedIOException e) {
+            throw translateReadFailure(path, e.getCause());
+        } catch (IOException e) {
+            throw translateReadFailure(path, e);
+        }
+
+        if (uploadedResources.isEmpty()) {
+            throw new InvalidUploadRequestException("The request doesn't contain any files in the '%s' part".formatted(FILE_FIELD_NAME));
+        }
+
+        return uploadedResources;
+    }
+
+    private RuntimeException translateReadFailure(String path, IOException e) {
+        if (e instanceof FileUploadSizeException sizeException) {
+            log.warn("Streaming upload to '{}' exceeded the size limit of {} bytes", path, sizeException.getPermitted());
+            return new MaxUploadSizeExceededException(sizeException.getPermitted(), sizeException);
+        }
+
+        if (e instanceof FileUploadException) {
+            log.warn("Malformed multipart body in streaming upload to '{}'", path, e);
+            return new InvalidUploadRequestException("The multipart request body is malformed");
+        }
+
+        log.error("Streaming upload to '{}' failed", path, e);
+        return new MinioException("Upload failed");
+    }
+
+    private static class QuotaLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        private boolean isExceeded;
+
+        private QuotaLimitedInputStream(InputStream inputStream, long limit) {
+            super(inputStream);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+
+            if (result != -1) {
+                count(1);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int bytesRead = super.read(b, off, len);
+
+            if (bytesRead > 0) {
+                count(bytesRead);
+            }
+
+            return bytesRead;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long bytes) throws IOException {
+            count += bytes;
+
+            if (count > limit) {
+                isExceeded = true;
+                throw new IOException("The upload exceeds the storage quota");
+            }
+        }
+
+        private long getCount() {
+            return count;
+        }
+
+        private boolean isExceeded() {
+            return isExceeded;
+        }
+    }
+}
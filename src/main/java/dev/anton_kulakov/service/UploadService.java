@@ -1,30 +1,111 @@
 package dev.anton_kulakov.service;
 
+import dev.anton_kulakov.concurrent.FanOutExecutor;
 import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.util.PathProcessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class UploadService {
-    private final MinioService minioService;
     private final FileResourceService fileResourceService;
+    private final StorageQuotaService storageQuotaService;
+    private final PathProcessor pathProcessor;
+    private final FanOutExecutor fanOutExecutor;
+    private final ExecutorService fanOutVirtualThreadExecutor;
 
-    public List<ResourceInfoDto> upload(String path, List<MultipartFile> files) {
-        List<ResourceInfoDto> uploadedResources = new ArrayList<>();
+    @Value("${minio.upload.files-concurrency}")
+    private int filesConcurrency;
 
-        for (MultipartFile file : files) {
-            String fullPath = path + file.getOriginalFilename();
-            minioService.upload(fullPath, file, true);
-            uploadedResources.add(fileResourceService.getInfo(fullPath));
+    @Value("${minio.upload.files-timeout}")
+    private Duration filesTimeout;
+
+    public CompletableFuture<List<ResourceInfoDto>> upload(String path, List<MultipartFile> files, boolean isAtomic) {
+        storageQuotaService.checkAvailable(pathProcessor.getUserId(path), files.stream().mapToLong(MultipartFile::getSize).sum());
+
+        return CompletableFuture.supplyAsync(() -> uploadConcurrently(path, files, isAtomic), fanOutVirtualThreadExecutor);
+    }
+
+    private List<ResourceInfoDto> uploadConcurrently(String path, List<MultipartFile> files, boolean isAtomic) {
+        UploadedPaths uploadedPaths = new UploadedPaths();
+
+        try {
+            return fanOutExecutor.map(files, filesConcurrency, filesTimeout, file -> {
+                String fullPath = path + file.getOriginalFilename();
+                ResourceInfoDto resource = await(fileResourceService.upload(fullPath, file));
+
+                if (!uploadedPaths.add(fullPath)) {
+                    // A deadline doesn't wait for running uploads, so one finishing after the rollback removes itself.
+                    // The fan-out has interrupted this thread by now, which would fail the removal too
+                    boolean isInterrupted = Thread.interrupted();
+                    rollback(List.of(fullPath));
+
+                    if (isInterrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                return resource;
+            });
+        } catch (RuntimeException e) {
+            if (isAtomic) {
+                rollback(uploadedPaths.close());
+            }
+            throw e;
+        }
+    }
+
+    private void rollback(List<String> uploadedPaths) {
+        for (String uploadedPath : uploadedPaths) {
+            try {
+                fileResourceService.delete(uploadedPath);
+            } catch (RuntimeException e) {
+                log.warn("Failed to roll back the upload of '{}'", uploadedPath, e);
+            }
         }
 
-        return uploadedResources;
+        log.info("Rolled back {} uploaded files after a failed upload", uploadedPaths.size());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class UploadedPaths {
+        private final List<String> paths = new ArrayList<>();
+        private boolean isClosed;
+
+        private synchronized boolean add(String path) {
+            if (isClosed) {
+                return false;
+            }
+
+            paths.add(path);
+            return true;
+        }
+
+        private synchronized List<String> close() {
+            isClosed = true;
+            return List.copyOf(paths);
+        }
     }
 }
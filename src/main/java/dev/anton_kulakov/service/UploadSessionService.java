@@ -0,0 +1,181 @@
+package dev.anton_kulakov.service;
+
+import dev.anton_kulakov.dto.PresignedUrlDto;
+import dev.anton_kulakov.dto.ResourceInfoDto;
+import dev.anton_kulakov.dto.UploadSessionDto;
+import dev.anton_kulakov.exception.InvalidUploadRequestException;
+import dev.anton_kulakov.exception.ResourceAlreadyExistsException;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.model.UploadSession;
+import dev.anton_kulakov.repository.UploadSessionRepository;
+import dev.anton_kulakov.util.PathProcessor;
+import io.minio.messages.Part;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionService {
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MultipartUploader multipartUploader;
+    private final FileResourceService fileResourceService;
+    private final PathProcessor pathProcessor;
+    private final StorageQuotaService storageQuotaService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${minio.upload.session.max-part-size}")
+    private DataSize maxPartSize;
+
+    @Value("${minio.upload.session.time-to-live}")
+    private Duration timeToLive;
+
+    @Value("${minio.upload.session.presigned-url-expiry}")
+    private Duration presignedUrlExpiry;
+
+    public UploadSessionDto create(String path, String contentType, int userId) {
+        if (path.endsWith("/")) {
+            log.warn("Attempt to start an upload session for folder path {}", path);
+            throw new InvalidUploadRequestException("The path of a resumable upload must point to a file");
+        }
+
+        if (fileResourceService.isExists(path)) {
+            log.warn("Attempt to start an upload session for existing file {}", path);
+            throw new ResourceAlreadyExistsException("The file already exists at the destination path: %s".formatted(path));
+        }
+
+        Instant now = Instant.now();
+        UploadSession uploadSession = new UploadSession();
+        uploadSession.setId(UUID.randomUUID());
+        uploadSession.setUserId(userId);
+        uploadSession.setObjectPath(path);
+        uploadSession.setContentType(contentType);
+        uploadSession.setUploadId(multipartUploader.initiate(path, contentType));
+        uploadSession.setCreatedAt(now);
+        uploadSession.setUpdatedAt(now);
+
+        uploadSessionRepository.save(uploadSession);
+        log.info("Started upload session {} for {}", uploadSession.getId(), path);
+
+        return toDto(uploadSession, List.of());
+    }
+
+    public UploadSessionDto get(UUID sessionId, int userId) {
+        UploadSession uploadSession = getSession(sessionId, userId);
+        return toDto(uploadSession, multipartUploader.listParts(uploadSession.getObjectPath(), uploadSession.getUploadId()));
+    }
+
+    public void uploadPart(UUID sessionId, int partNumber, InputStream inputStream, long contentLength, int userId) {
+        validatePartNumber(partNumber);
+
+        if (contentLength <= 0 || contentLength > maxPartSize.toBytes()) {
+            throw new InvalidUploadRequestException("The part size must be between 1 and %d bytes".formatted(maxPartSize.toBytes()));
+        }
+
+        UploadSession uploadSession = getSession(sessionId, userId);
+        multipartUploader.uploadPart(uploadSession.getObjectPath(), uploadSession.getUploadId(), partNumber, inputStream, contentLength);
+        uploadSessionRepository.updateUpdatedAt(sessionId, Instant.now());
+    }
+
+    public PresignedUrlDto getPresignedPartUrl(UUID sessionId, int partNumber, int userId) {
+        validatePartNumber(partNumber);
+
+        UploadSession uploadSession = getSession(sessionId, userId);
+        String url = multipartUploader.getPresignedPartUrl(uploadSession.getObjectPath(), uploadSession.getUploadId(),
+                partNumber, presignedUrlExpiry);
+        uploadSessionRepository.updateUpdatedAt(sessionId, Instant.now());
+
+        return new PresignedUrlDto(url, presignedUrlExpiry.toSeconds());
+    }
+
+    public ResourceInfoDto commit(UUID sessionId, int userId) {
+        UploadSession uploadSession = getSession(sessionId, userId);
+        List<Part> uploadedParts = multipartUploader.listParts(uploadSession.getObjectPath(), uploadSession.getUploadId());
+
+        if (uploadedParts.isEmpty()) {
+            throw new InvalidUploadRequestException("The upload session doesn't contain any parts");
+        }
+
+        UUID reservationId = storageQuotaService.reserve(userId, uploadedParts.stream().mapToLong(Part::partSize).sum());
+
+        try {
+            Part[] parts = uploadedParts.stream()
+                    .map(uploadedPart -> new Part(uploadedPart.partNumber(), uploadedPart.etag()))
+                    .toArray(Part[]::new);
+
+            multipartUploader.complete(uploadSession.getObjectPath(), uploadSession.getUploadId(), parts, true);
+            uploadSessionRepository.deleteById(sessionId);
+            log.info("Committed upload session {} for {}", sessionId, uploadSession.getObjectPath());
+
+            return fileResourceService.registerUploadedFile(uploadSession.getObjectPath());
+        } finally {
+            storageQuotaService.release(reservationId);
+        }
+    }
+
+    public void abort(UUID sessionId, int userId) {
+        UploadSession uploadSession = getSession(sessionId, userId);
+        uploadSessionRepository.deleteById(sessionId);
+        multipartUploader.abort(uploadSession.getObjectPath(), uploadSession.getUploadId());
+    }
+
+    @Scheduled(fixedDelayString = "${minio.upload.session.cleanup-interval}")
+    public void removeStaleSessions() {
+        Instant threshold = Instant.now().minus(timeToLive);
+        int removedCount = 0;
+        List<UploadSession> staleSessions;
+
+        do {
+            // Sessions are claimed by deleting their rows, so every node aborts a disjoint batch outside the transaction
+            staleSessions = transactionTemplate.execute(status -> {
+                List<UploadSession> claimedSessions = uploadSessionRepository.lockStale(threshold, CLEANUP_BATCH_SIZE);
+                uploadSessionRepository.deleteAllInBatch(claimedSessions);
+                return claimedSessions;
+            });
+
+            for (UploadSession staleSession : staleSessions) {
+                multipartUploader.abort(staleSession.getObjectPath(), staleSession.getUploadId());
+            }
+            removedCount += staleSessions.size();
+        } while (staleSessions.size() == CLEANUP_BATCH_SIZE);
+
+        if (removedCount > 0) {
+            log.info("Removed {} stale upload sessions", removedCount);
+        }
+    }
+
+    private UploadSession getSession(UUID sessionId, int userId) {
+        return uploadSessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> {
+                    log.warn("Upload session {} of user {} could not be found", sessionId, userId);
+                    return new ResourceNotFoundException("The upload session could not be found");
+                });
+    }
+
+    private static void validatePartNumber(int partNumber) {
+        if (partNumber < 1 || partNumber > MultipartUploader.MAX_PARTS_COUNT) {
+            throw new InvalidUploadRequestException("The part number must be between 1 and %d".formatted(MultipartUploader.MAX_PARTS_COUNT));
+        }
+    }
+
+    private UploadSessionDto toDto(UploadSession uploadSession, List<Part> uploadedParts) {
+        return new UploadSessionDto(
+                uploadSession.getId(),
+                pathProcessor.getPathWithoutRootFolder(uploadSession.getObjectPath()),
+                maxPartSize.toBytes(),
+                uploadedParts.stream().map(Part::partNumber).sorted().toList());
+    }
+}
@@ -0,0 +1,19 @@
+package dev.anton_kulakov.streaming;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class ArchiveObject {
+    private final String objectKey;
+    private final String path;
+    private final long size;
+    private final ZonedDateTime lastModified;
+
+    public boolean hasContent() {
+        return objectKey != null;
+    }
+}
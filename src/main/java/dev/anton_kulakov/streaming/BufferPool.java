@@ -0,0 +1,84 @@
+package dev.anton_kulakov.streaming;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+public class BufferPool {
+    private static final int[] TIER_SIZES = {8 * 1024, 64 * 1024, 256 * 1024};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${streaming.buffer.max-pooled-per-tier}")
+    private int maxPooledPerTier;
+
+    private Tier[] tiers;
+
+    @PostConstruct
+    private void createTiers() {
+        tiers = new Tier[TIER_SIZES.length];
+
+        for (int i = 0; i < TIER_SIZES.length; i++) {
+            Tier tier = new Tier(TIER_SIZES[i]);
+            tiers[i] = tier;
+            Gauge.builder("streaming.buffer.pooled", tier.pooledCount, AtomicInteger::get)
+                    .tag("size", String.valueOf(tier.size))
+                    .register(meterRegistry);
+        }
+    }
+
+    public ByteBuffer acquire(long expectedSize) {
+        Tier tier = getTier(expectedSize);
+        ByteBuffer buffer = tier.buffers.poll();
+
+        if (buffer == null) {
+            return ByteBuffer.allocate(tier.size);
+        }
+
+        tier.pooledCount.decrementAndGet();
+        return buffer.clear();
+    }
+
+    public void release(ByteBuffer buffer) {
+        for (Tier tier : tiers) {
+            if (tier.size == buffer.capacity()) {
+                if (tier.pooledCount.incrementAndGet() <= maxPooledPerTier) {
+                    tier.buffers.offer(buffer);
+                } else {
+                    tier.pooledCount.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private Tier getTier(long expectedSize) {
+        for (Tier tier : tiers) {
+            if (expectedSize <= tier.size) {
+                return tier;
+            }
+        }
+
+        return tiers[tiers.length - 1];
+    }
+
+    private static class Tier {
+        private final int size;
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pooledCount = new AtomicInteger();
+
+        private Tier(int size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package dev.anton_kulakov.streaming;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ByteRange {
+    private final long start;
+    private final long end;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String toContentRange(long totalSize) {
+        return "bytes %d-%d/%d".formatted(start, end, totalSize);
+    }
+}
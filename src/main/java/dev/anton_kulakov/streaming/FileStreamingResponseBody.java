@@ -2,6 +2,7 @@ package dev.anton_kulakov.streaming;
 
 import dev.anton_kulakov.exception.BaseAppException;
 import dev.anton_kulakov.service.MinioService;
+import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
@@ -12,20 +13,37 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 @Slf4j
-@RequiredArgsConstructor
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class FileStreamingResponseBody implements StreamingResponseBody {
     private final MinioService minioService;
     private final StreamCopier streamCopier;
     private final String resourceName;
+    private final ByteRange range;
+    private final long size;
+
+    public FileStreamingResponseBody(MinioService minioService, StreamCopier streamCopier, String resourceName, long size) {
+        this(minioService, streamCopier, resourceName, null, size);
+    }
+
+    public FileStreamingResponseBody(MinioService minioService, StreamCopier streamCopier, String resourceName, ByteRange range) {
+        this(minioService, streamCopier, resourceName, range, range.length());
+    }
 
     @Override
     public void writeTo(@NotNull OutputStream outputStream) {
-        try (InputStream inputStream = minioService.getObject(resourceName)) {
-            int bufferSize = 1024;
-            streamCopier.copyStream(inputStream, outputStream, bufferSize);
+        try (InputStream inputStream = openStream()) {
+            streamCopier.copyStream(inputStream, outputStream, size);
         } catch (IOException e) {
             log.error("Failed to stream file", e);
             throw new BaseAppException("Failed to stream file: " + resourceName);
         }
     }
+
+    private InputStream openStream() {
+        if (range == null) {
+            return minioService.getObject(resourceName);
+        }
+
+        return minioService.getObject(resourceName, range.getStart(), range.length());
+    }
 }
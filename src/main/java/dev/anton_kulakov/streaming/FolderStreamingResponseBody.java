@@ -1,7 +1,7 @@
 package dev.anton_kulakov.streaming;
 
 import dev.anton_kulakov.exception.BaseAppException;
-import dev.anton_kulakov.service.MinioService;
+import dev.anton_kulakov.model.CompressionLevelEnum;
 import dev.anton_kulakov.util.PathProcessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,27 +9,31 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 @Slf4j
 @RequiredArgsConstructor
 public class FolderStreamingResponseBody implements StreamingResponseBody {
-    private final MinioService minioService;
+    private final ObjectPrefetcher objectPrefetcher;
     private final PathProcessor pathProcessor;
     private final StreamCopier streamCopier;
-    private final List<String> resourcesInFolder;
+    private final ZipCompressionPolicy compressionPolicy;
+    private final CompressionLevelEnum compressionLevel;
+    private final Supplier<Stream<ArchiveObject>> filesInFolder;
     private final String pathWithoutResourceName;
 
     @Override
     public void writeTo(@NotNull OutputStream outputStream) {
-        try (ZipOutputStream zipOut = new ZipOutputStream(outputStream)) {
+        try (Stream<ArchiveObject> files = filesInFolder.get();
+             ZipOutputStream zipOut = new ZipOutputStream(outputStream);
+             PrefetchQueue prefetchQueue = objectPrefetcher.prefetch(files::iterator)) {
 
-            for (String resource : resourcesInFolder) {
-                addResourceToZip(zipOut, resource);
+            while (prefetchQueue.hasNext()) {
+                addResourceToZip(zipOut, prefetchQueue);
             }
         } catch (IOException e) {
             log.error("Failed to add resource to ZIP archive.", e);
@@ -37,19 +41,19 @@ public class FolderStreamingResponseBody implements StreamingResponseBody {
         }
     }
 
-    private void addResourceToZip(ZipOutputStream zipOut, String fullResourceName) throws IOException {
-        String entryName = pathProcessor.getRelativePath(pathWithoutResourceName, fullResourceName);
-        int bufferSize = 1024;
-
-        try {
-            zipOut.putNextEntry(new ZipEntry(entryName));
-
-            try (InputStream inputStream = minioService.getObject(fullResourceName)) {
-                streamCopier.copyStream(inputStream, zipOut, bufferSize);
+    private void addResourceToZip(ZipOutputStream zipOut, PrefetchQueue prefetchQueue) throws IOException {
+        try (PrefetchedObject resource = prefetchQueue.next()) {
+            String entryName = pathProcessor.getRelativePath(pathWithoutResourceName, resource.getObjectName());
+
+            try {
+                ZipEntry entry = new ZipEntry(entryName);
+                compressionPolicy.prepareEntry(zipOut, entry, resource, compressionLevel);
+                zipOut.putNextEntry(entry);
+                resource.writeTo(zipOut, streamCopier);
+            } catch (IOException e) {
+                log.error("Failed to add resource '{}' to ZIP archive", resource.getObjectName(), e);
+                throw new BaseAppException("Failed to add resource to ZIP: %s".formatted(resource.getObjectName()));
             }
-        } catch (IOException e) {
-            log.error("Failed to add resource '{}' to ZIP archive", fullResourceName, e);
-            throw new BaseAppException("Failed to add resource to ZIP: %s".formatted(fullResourceName));
         }
 
         zipOut.closeEntry();
@@ -0,0 +1,65 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.exception.BaseAppException;
+import dev.anton_kulakov.service.MinioService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class MultiRangeStreamingResponseBody implements StreamingResponseBody {
+    private final MinioService minioService;
+    private final StreamCopier streamCopier;
+    private final String resourceName;
+    private final List<ByteRange> ranges;
+    private final long totalSize;
+    private final String boundary;
+
+    public static long calculateContentLength(List<ByteRange> ranges, long totalSize, String boundary) {
+        long contentLength = closingDelimiter(boundary).length;
+
+        for (ByteRange range : ranges) {
+            contentLength += partHeader(boundary, range, totalSize).length + range.length();
+        }
+
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(@NotNull OutputStream outputStream) {
+        try {
+            for (ByteRange range : ranges) {
+                outputStream.write(partHeader(boundary, range, totalSize));
+
+                try (InputStream inputStream = minioService.getObject(resourceName, range.getStart(), range.length())) {
+                    streamCopier.copyStream(inputStream, outputStream, range.length());
+                }
+            }
+
+            outputStream.write(closingDelimiter(boundary));
+        } catch (IOException e) {
+            log.error("Failed to stream byte ranges of '{}'", resourceName, e);
+            throw new BaseAppException("Failed to stream file: " + resourceName);
+        }
+    }
+
+    private static byte[] partHeader(String boundary, ByteRange range, long totalSize) {
+        String header = "\r\n--" + boundary + "\r\n" +
+                "Content-Type: " + MediaType.APPLICATION_OCTET_STREAM_VALUE + "\r\n" +
+                "Content-Range: " + range.toContentRange(totalSize) + "\r\n\r\n";
+        return header.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] closingDelimiter(String boundary) {
+        return ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
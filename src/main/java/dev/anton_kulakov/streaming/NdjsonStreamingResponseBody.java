@@ -0,0 +1,64 @@
+package dev.anton_kulakov.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.anton_kulakov.exception.BaseAppException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@RequiredArgsConstructor
+public class NdjsonStreamingResponseBody implements StreamingResponseBody {
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final ObjectMapper objectMapper;
+    private final ResourceInfoSource source;
+
+    public static boolean isRequested(String acceptHeader) {
+        if (acceptHeader == null) {
+            return false;
+        }
+
+        try {
+            return MediaType.parseMediaTypes(acceptHeader).stream()
+                    .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void writeTo(@NotNull OutputStream outputStream) throws IOException {
+        long[] lastFlush = {0};
+
+        try {
+            source.forEach(resource -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(resource));
+                    outputStream.write('\n');
+
+                    long now = System.nanoTime();
+                    if (lastFlush[0] == 0 || now - lastFlush[0] >= FLUSH_INTERVAL_NANOS) {
+                        outputStream.flush();
+                        lastFlush[0] = now;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to stream NDJSON response", e.getCause());
+            throw new BaseAppException("Failed to stream the resources");
+        }
+
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.service.MinioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.ExecutorService;
+
+@Component
+@RequiredArgsConstructor
+public class ObjectPrefetcher {
+    private final MinioService minioService;
+    private final ExecutorService zipPrefetchExecutor;
+
+    @Value("${minio.download.prefetch-count}")
+    private int prefetchCount;
+
+    @Value("${minio.download.prefetch-buffer-size}")
+    private DataSize prefetchBufferSize;
+
+    public PrefetchQueue prefetch(Iterable<ArchiveObject> objects) {
+        int bufferSize = (int) Math.min(prefetchBufferSize.toBytes(), Integer.MAX_VALUE);
+        return new PrefetchQueue(minioService, zipPrefetchExecutor, objects, prefetchCount, bufferSize);
+    }
+}
@@ -0,0 +1,144 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.service.MinioService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+public class PrefetchQueue implements AutoCloseable {
+    private final MinioService minioService;
+    private final Executor executor;
+    private final Iterator<ArchiveObject> objects;
+    private final int prefetchCount;
+    private final long maxBufferedObjectSize;
+    private final Semaphore bufferPermits;
+    private final Deque<CompletableFuture<PrefetchedObject>> pending = new ArrayDeque<>();
+    private ArchiveObject deferredObject;
+    private CompletableFuture<PrefetchedObject> streamedAhead;
+    private volatile boolean closed;
+
+    public PrefetchQueue(MinioService minioService, Executor executor, Iterable<ArchiveObject> objects,
+                         int prefetchCount, int bufferSize) {
+        this.minioService = minioService;
+        this.executor = executor;
+        this.objects = objects.iterator();
+        this.prefetchCount = prefetchCount;
+        this.maxBufferedObjectSize = bufferSize / prefetchCount;
+        this.bufferPermits = new Semaphore(bufferSize);
+    }
+
+    public boolean hasNext() {
+        fill();
+        return !pending.isEmpty();
+    }
+
+    public PrefetchedObject next() throws IOException {
+        fill();
+        CompletableFuture<PrefetchedObject> head = pending.poll();
+
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+
+        if (head == streamedAhead) {
+            streamedAhead = null;
+        }
+
+        try {
+            return head.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            fill();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        for (CompletableFuture<PrefetchedObject> future : pending) {
+            future.thenAccept(PrefetchedObject::close);
+        }
+
+        pending.clear();
+        streamedAhead = null;
+    }
+
+    private void fill() {
+        while (!closed && pending.size() < prefetchCount && (deferredObject != null || objects.hasNext())) {
+            ArchiveObject object = deferredObject != null ? deferredObject : objects.next();
+            deferredObject = null;
+
+            if (!object.hasContent()) {
+                pending.add(CompletableFuture.completedFuture(PrefetchedObject.buffered(object.getPath(), new byte[0], null)));
+                continue;
+            }
+
+            if (object.getSize() > maxBufferedObjectSize) {
+                // Every streamed object holds a connection open until it is written, so only one is opened ahead
+                if (streamedAhead != null) {
+                    deferredObject = object;
+                    return;
+                }
+
+                streamedAhead = CompletableFuture.supplyAsync(() -> open(object), executor);
+                pending.add(streamedAhead);
+                continue;
+            }
+
+            int permits = (int) object.getSize();
+
+            if (!bufferPermits.tryAcquire(permits)) {
+                deferredObject = object;
+                return;
+            }
+
+            pending.add(CompletableFuture.supplyAsync(() -> download(object, permits), executor));
+        }
+    }
+
+    private PrefetchedObject open(ArchiveObject object) {
+        if (closed) {
+            throw new CancellationException();
+        }
+
+        return PrefetchedObject.streamed(object.getPath(), minioService.getObject(object.getObjectKey()));
+    }
+
+    private PrefetchedObject download(ArchiveObject object, int permits) {
+        try {
+            if (closed) {
+                throw new CancellationException();
+            }
+
+            try (InputStream inputStream = minioService.getObject(object.getObjectKey())) {
+                return PrefetchedObject.buffered(object.getPath(), inputStream.readAllBytes(), () -> bufferPermits.release(permits));
+            }
+        } catch (IOException e) {
+            bufferPermits.release(permits);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            bufferPermits.release(permits);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dev.anton_kulakov.streaming;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+@Slf4j
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PrefetchedObject implements AutoCloseable {
+    @Getter
+    private final String objectName;
+    private final byte[] content;
+    private final InputStream inputStream;
+    private final Runnable releaseAction;
+
+    public static PrefetchedObject buffered(String objectName, byte[] content, Runnable releaseAction) {
+        return new PrefetchedObject(objectName, content, null, releaseAction);
+    }
+
+    public static PrefetchedObject streamed(String objectName, InputStream inputStream) {
+        return new PrefetchedObject(objectName, null, new BufferedInputStream(inputStream), null);
+    }
+
+    public boolean isBuffered() {
+        return content != null;
+    }
+
+    public long getSize() {
+        return content.length;
+    }
+
+    public long getCrc() {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    public byte[] sample(int maxBytes) throws IOException {
+        if (content != null) {
+            return Arrays.copyOf(content, Math.min(maxBytes, content.length));
+        }
+
+        inputStream.mark(maxBytes);
+        byte[] sample = inputStream.readNBytes(maxBytes);
+        inputStream.reset();
+        return sample;
+    }
+
+    public void writeTo(OutputStream outputStream, StreamCopier streamCopier) throws IOException {
+        if (content != null) {
+            outputStream.write(content);
+            return;
+        }
+
+        streamCopier.copyStream(inputStream, outputStream);
+    }
+
+    @Override
+    public void close() {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                log.debug("Failed to close the stream of '{}'", objectName, e);
+            }
+        }
+
+        if (releaseAction != null) {
+            releaseAction.run();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.dto.ResourceInfoDto;
+
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface ResourceInfoSource {
+    void forEach(Consumer<ResourceInfoDto> consumer);
+}
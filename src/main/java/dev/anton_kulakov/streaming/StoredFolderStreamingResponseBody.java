@@ -0,0 +1,40 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.exception.BaseAppException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class StoredFolderStreamingResponseBody implements StreamingResponseBody {
+    private final ObjectPrefetcher objectPrefetcher;
+    private final StreamCopier streamCopier;
+    private final List<ArchiveObject> filesInFolder;
+    private final List<StoredZipEntry> entries;
+
+    @Override
+    public void writeTo(@NotNull OutputStream outputStream) {
+        StoredZipOutputStream zipOut = new StoredZipOutputStream(outputStream);
+
+        try (PrefetchQueue prefetchQueue = objectPrefetcher.prefetch(filesInFolder)) {
+            for (StoredZipEntry entry : entries) {
+                try (PrefetchedObject resource = prefetchQueue.next()) {
+                    zipOut.putNextEntry(entry);
+                    resource.writeTo(zipOut, streamCopier);
+                    zipOut.closeEntry();
+                }
+            }
+
+            zipOut.finish();
+        } catch (IOException e) {
+            log.error("Failed to write stored ZIP archive", e);
+            throw new BaseAppException("Failed to create ZIP archive");
+        }
+    }
+}
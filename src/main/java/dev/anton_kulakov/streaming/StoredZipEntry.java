@@ -0,0 +1,23 @@
+package dev.anton_kulakov.streaming;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class StoredZipEntry {
+    private final String name;
+    private final long size;
+    private final ZonedDateTime lastModified;
+
+    public byte[] getNameBytes() {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isDirectory() {
+        return name.endsWith("/");
+    }
+}
@@ -0,0 +1,308 @@
+package dev.anton_kulakov.streaming;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+@RequiredArgsConstructor
+public class StoredZipOutputStream extends OutputStream {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRIES_LIMIT = 0xFFFF;
+    private static final short ZIP64_EXTRA_ID = 0x0001;
+    private static final short VERSION = 20;
+    private static final short ZIP64_VERSION = 45;
+    private static final short FLAGS = 0x0808;
+    private static final short METHOD_STORED = 0;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int ZIP64_END_LENGTH = 56;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int END_LENGTH = 22;
+
+    private final OutputStream outputStream;
+    private final List<WrittenEntry> writtenEntries = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private StoredZipEntry currentEntry;
+    private long currentEntryWritten;
+    private long written;
+
+    public static long calculateLength(List<StoredZipEntry> entries) {
+        long offset = 0;
+        long centralDirectorySize = 0;
+
+        for (StoredZipEntry entry : entries) {
+            int nameLength = entry.getNameBytes().length;
+            centralDirectorySize += CENTRAL_HEADER_LENGTH + nameLength + centralExtraLength(entry.getSize(), offset);
+            offset += LOCAL_HEADER_LENGTH + nameLength + localExtraLength(entry.getSize())
+                    + entry.getSize() + dataDescriptorLength(entry.getSize());
+        }
+
+        return offset + centralDirectorySize + endLength(entries.size(), offset, centralDirectorySize);
+    }
+
+    public void putNextEntry(StoredZipEntry entry) throws IOException {
+        if (currentEntry != null) {
+            closeEntry();
+        }
+
+        writtenEntries.add(new WrittenEntry(entry, written));
+        outputStream.write(localHeader(entry));
+        written += LOCAL_HEADER_LENGTH + entry.getNameBytes().length + localExtraLength(entry.getSize());
+
+        currentEntry = entry;
+        currentEntryWritten = 0;
+        crc.reset();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (currentEntry == null) {
+            throw new IOException("No current ZIP entry");
+        }
+
+        if (currentEntryWritten + len > currentEntry.getSize()) {
+            throw new IOException("Content of '%s' is longer than its listed size %d".formatted(currentEntry.getName(), currentEntry.getSize()));
+        }
+
+        outputStream.write(b, off, len);
+        crc.update(b, off, len);
+        currentEntryWritten += len;
+        written += len;
+    }
+
+    public void closeEntry() throws IOException {
+        if (currentEntryWritten != currentEntry.getSize()) {
+            throw new IOException("Content of '%s' is shorter than its listed size %d".formatted(currentEntry.getName(), currentEntry.getSize()));
+        }
+
+        WrittenEntry writtenEntry = writtenEntries.get(writtenEntries.size() - 1);
+        writtenEntry.crc = crc.getValue();
+
+        byte[] dataDescriptor = dataDescriptor(currentEntry.getSize(), writtenEntry.crc);
+        outputStream.write(dataDescriptor);
+        written += dataDescriptor.length;
+        currentEntry = null;
+    }
+
+    public void finish() throws IOException {
+        if (currentEntry != null) {
+            closeEntry();
+        }
+
+        long centralDirectoryOffset = written;
+
+        for (WrittenEntry writtenEntry : writtenEntries) {
+            byte[] centralHeader = centralHeader(writtenEntry);
+            outputStream.write(centralHeader);
+            written += centralHeader.length;
+        }
+
+        long centralDirectorySize = written - centralDirectoryOffset;
+        outputStream.write(end(writtenEntries.size(), centralDirectoryOffset, centralDirectorySize));
+        outputStream.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    private static byte[] localHeader(StoredZipEntry entry) {
+        byte[] name = entry.getNameBytes();
+        boolean zip64 = entry.getSize() >= ZIP64_LIMIT;
+        int extraLength = localExtraLength(entry.getSize());
+        ByteBuffer buffer = buffer(LOCAL_HEADER_LENGTH + name.length + extraLength);
+
+        buffer.putInt(LOCAL_HEADER_SIGNATURE)
+                .putShort(zip64 ? ZIP64_VERSION : VERSION)
+                .putShort(FLAGS)
+                .putShort(METHOD_STORED)
+                .putInt(dosTime(entry.getLastModified()))
+                .putInt(0)
+                .putInt(zip64 ? (int) ZIP64_LIMIT : (int) entry.getSize())
+                .putInt(zip64 ? (int) ZIP64_LIMIT : (int) entry.getSize())
+                .putShort((short) name.length)
+                .putShort((short) extraLength)
+                .put(name);
+
+        if (zip64) {
+            buffer.putShort(ZIP64_EXTRA_ID)
+                    .putShort((short) 16)
+                    .putLong(entry.getSize())
+                    .putLong(entry.getSize());
+        }
+
+        return buffer.array();
+    }
+
+    private static byte[] dataDescriptor(long size, long crc) {
+        boolean zip64 = size >= ZIP64_LIMIT;
+        ByteBuffer buffer = buffer(dataDescriptorLength(size))
+                .putInt(DATA_DESCRIPTOR_SIGNATURE)
+                .putInt((int) crc);
+
+        if (zip64) {
+            buffer.putLong(size).putLong(size);
+        } else {
+            buffer.putInt((int) size).putInt((int) size);
+        }
+
+        return buffer.array();
+    }
+
+    private static byte[] centralHeader(WrittenEntry writtenEntry) {
+        StoredZipEntry entry = writtenEntry.entry;
+        byte[] name = entry.getNameBytes();
+        boolean zip64Size = entry.getSize() >= ZIP64_LIMIT;
+        boolean zip64Offset = writtenEntry.offset >= ZIP64_LIMIT;
+        int extraLength = centralExtraLength(entry.getSize(), writtenEntry.offset);
+        short version = zip64Size || zip64Offset ? ZIP64_VERSION : VERSION;
+        ByteBuffer buffer = buffer(CENTRAL_HEADER_LENGTH + name.length + extraLength);
+
+        buffer.putInt(CENTRAL_HEADER_SIGNATURE)
+                .putShort(version)
+                .putShort(version)
+                .putShort(FLAGS)
+                .putShort(METHOD_STORED)
+                .putInt(dosTime(entry.getLastModified()))
+                .putInt((int) writtenEntry.crc)
+                .putInt(zip64Size ? (int) ZIP64_LIMIT : (int) entry.getSize())
+                .putInt(zip64Size ? (int) ZIP64_LIMIT : (int) entry.getSize())
+                .putShort((short) name.length)
+                .putShort((short) extraLength)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putInt(entry.isDirectory() ? DIRECTORY_ATTRIBUTE : 0)
+                .putInt(zip64Offset ? (int) ZIP64_LIMIT : (int) writtenEntry.offset)
+                .put(name);
+
+        if (extraLength > 0) {
+            buffer.putShort(ZIP64_EXTRA_ID).putShort((short) (extraLength - 4));
+
+            if (zip64Size) {
+                buffer.putLong(entry.getSize()).putLong(entry.getSize());
+            }
+
+            if (zip64Offset) {
+                buffer.putLong(writtenEntry.offset);
+            }
+        }
+
+        return buffer.array();
+    }
+
+    private static byte[] end(int entriesCount, long centralDirectoryOffset, long centralDirectorySize) {
+        ByteBuffer buffer = buffer(endLength(entriesCount, centralDirectoryOffset, centralDirectorySize));
+
+        if (isZip64Archive(entriesCount, centralDirectoryOffset, centralDirectorySize)) {
+            long zip64EndOffset = centralDirectoryOffset + centralDirectorySize;
+
+            buffer.putInt(ZIP64_END_SIGNATURE)
+                    .putLong(ZIP64_END_LENGTH - 12)
+                    .putShort(ZIP64_VERSION)
+                    .putShort(ZIP64_VERSION)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(entriesCount)
+                    .putLong(entriesCount)
+                    .putLong(centralDirectorySize)
+                    .putLong(centralDirectoryOffset);
+
+            buffer.putInt(ZIP64_LOCATOR_SIGNATURE)
+                    .putInt(0)
+                    .putLong(zip64EndOffset)
+                    .putInt(1);
+        }
+
+        short entries = (short) Math.min(entriesCount, ZIP64_ENTRIES_LIMIT);
+
+        buffer.putInt(END_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort(entries)
+                .putShort(entries)
+                .putInt((int) Math.min(centralDirectorySize, ZIP64_LIMIT))
+                .putInt((int) Math.min(centralDirectoryOffset, ZIP64_LIMIT))
+                .putShort((short) 0);
+
+        return buffer.array();
+    }
+
+    private static int localExtraLength(long size) {
+        return size >= ZIP64_LIMIT ? 20 : 0;
+    }
+
+    private static int centralExtraLength(long size, long offset) {
+        int fieldsLength = (size >= ZIP64_LIMIT ? 16 : 0) + (offset >= ZIP64_LIMIT ? 8 : 0);
+        return fieldsLength > 0 ? 4 + fieldsLength : 0;
+    }
+
+    private static int dataDescriptorLength(long size) {
+        return size >= ZIP64_LIMIT ? 24 : 16;
+    }
+
+    private static int endLength(int entriesCount, long centralDirectoryOffset, long centralDirectorySize) {
+        boolean zip64 = isZip64Archive(entriesCount, centralDirectoryOffset, centralDirectorySize);
+        return (zip64 ? ZIP64_END_LENGTH + ZIP64_LOCATOR_LENGTH : 0) + END_LENGTH;
+    }
+
+    private static boolean isZip64Archive(int entriesCount, long centralDirectoryOffset, long centralDirectorySize) {
+        return entriesCount >= ZIP64_ENTRIES_LIMIT
+                || centralDirectoryOffset >= ZIP64_LIMIT
+                || centralDirectorySize >= ZIP64_LIMIT;
+    }
+
+    private static int dosTime(ZonedDateTime lastModified) {
+        ZonedDateTime time = lastModified == null ? null : lastModified.withZoneSameInstant(ZoneOffset.UTC);
+
+        if (time == null || time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+
+        return (time.getYear() - 1980) << 25
+                | time.getMonthValue() << 21
+                | time.getDayOfMonth() << 16
+                | time.getHour() << 11
+                | time.getMinute() << 5
+                | time.getSecond() >> 1;
+    }
+
+    private static ByteBuffer buffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @RequiredArgsConstructor
+    private static class WrittenEntry {
+        private final StoredZipEntry entry;
+        private final long offset;
+        private long crc;
+    }
+}
@@ -1,28 +1,255 @@
 package dev.anton_kulakov.streaming;
 
 import dev.anton_kulakov.exception.BaseAppException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class StreamCopier {
-    public void copyStream(InputStream inputStream, OutputStream outputStream, int bufferSize) {
-        int endOfStream = -1;
-        byte[] buffer = new byte[bufferSize];
-        int bytesRead;
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+    private static final long MIN_READ_AHEAD_SIZE = 256 * 1024;
+
+    private final BufferPool bufferPool;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService fanOutVirtualThreadExecutor;
+
+    @Value("${streaming.read-ahead.buffers}")
+    private int readAheadBuffers;
+
+    private Counter copiedBytes;
+    private Timer readStalls;
+    private Timer writeStalls;
+    private DistributionSummary throughput;
+
+    @PostConstruct
+    private void createMeters() {
+        copiedBytes = Counter.builder("streaming.copy.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        readStalls = Timer.builder("streaming.copy.stall")
+                .tag("side", "read")
+                .register(meterRegistry);
+        writeStalls = Timer.builder("streaming.copy.stall")
+                .tag("side", "write")
+                .register(meterRegistry);
+        throughput = DistributionSummary.builder("streaming.copy.throughput")
+                .baseUnit("bytes/s")
+                .register(meterRegistry);
+    }
+
+    public void copyStream(InputStream inputStream, OutputStream outputStream) {
+        copyStream(inputStream, outputStream, Long.MAX_VALUE);
+    }
+
+    public void copyStream(InputStream inputStream, OutputStream outputStream, long expectedSize) {
+        long startedAt = System.nanoTime();
+        CopyStats stats = new CopyStats();
 
         try {
-            while ((bytesRead = inputStream.read(buffer)) != endOfStream) {
-                outputStream.write(buffer, 0, bytesRead);
+            if (readAheadBuffers > 0 && expectedSize > MIN_READ_AHEAD_SIZE) {
+                copyWithReadAhead(inputStream, outputStream, expectedSize, stats);
+            } else {
+                copyWithPooledBuffer(inputStream, outputStream, expectedSize, stats);
             }
         } catch (IOException e) {
             log.error("Stream copy failed. An I/O error occurred", e);
             throw new BaseAppException("Failed to copy stream data: I/O error during read/write operation");
+        } finally {
+            record(stats, System.nanoTime() - startedAt);
+        }
+    }
+
+    private void copyWithPooledBuffer(InputStream inputStream, OutputStream outputStream, long expectedSize,
+                                      CopyStats stats) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire(expectedSize);
+
+        try {
+            while (true) {
+                long readStartedAt = System.nanoTime();
+                int bytesRead = read(inputStream, buffer);
+                stats.readNanos += System.nanoTime() - readStartedAt;
+
+                if (bytesRead == -1) {
+                    return;
+                }
+
+                long writeStartedAt = System.nanoTime();
+                buffer.flip();
+                stats.bytes += write(outputStream, buffer);
+                buffer.clear();
+                stats.writeNanos += System.nanoTime() - writeStartedAt;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private void copyWithReadAhead(InputStream inputStream, OutputStream outputStream, long expectedSize,
+                                   CopyStats stats) throws IOException {
+        BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(readAheadBuffers);
+        BlockingQueue<ByteBuffer> filledBuffers = new ArrayBlockingQueue<>(readAheadBuffers + 1);
+        AtomicReference<Throwable> producerFailure = new AtomicReference<>();
+        AtomicBoolean producerClaimed = new AtomicBoolean();
+        CountDownLatch producerFinished = new CountDownLatch(1);
+        CopyStats producerStats = new CopyStats();
+        boolean isCopied = false;
+
+        for (int i = 0; i < readAheadBuffers; i++) {
+            freeBuffers.add(bufferPool.acquire(expectedSize));
+        }
+
+        Future<?> producer = fanOutVirtualThreadExecutor.submit(() -> {
+            // A task cancelled before it started never runs its body, so whichever side claims first decides
+            if (producerClaimed.compareAndSet(false, true)) {
+                readAhead(inputStream, freeBuffers, filledBuffers, producerFailure, producerFinished, producerStats);
+            }
+        });
+
+        try {
+            while (true) {
+                ByteBuffer buffer = filledBuffers.take();
+
+                if (buffer == END_OF_STREAM) {
+                    isCopied = true;
+                    break;
+                }
+
+                long writeStartedAt = System.nanoTime();
+                stats.bytes += write(outputStream, buffer);
+                stats.writeNanos += System.nanoTime() - writeStartedAt;
+                freeBuffers.add(buffer.clear());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The stream copy was interrupted");
+        } finally {
+            if (!isCopied) {
+                stopProducer(producer, inputStream);
+            }
+
+            if (!producerClaimed.compareAndSet(false, true)) {
+                producerFinished.awaitUninterruptibly();
+            }
+
+            stats.readNanos += producerStats.readNanos;
+            releaseAll(freeBuffers);
+            releaseAll(filledBuffers);
+        }
+
+        Throwable failure = producerFailure.get();
+
+        if (failure instanceof IOException e) {
+            throw e;
         }
+
+        if (failure != null) {
+            throw new IOException("Failed to read ahead from the source stream", failure);
+        }
+    }
+
+    private static void stopProducer(Future<?> producer, InputStream inputStream) {
+        producer.cancel(true);
+
+        // Interrupting does not unblock a socket read, closing the source does
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the source stream of an abandoned copy", e);
+        }
+    }
+
+    private static void readAhead(InputStream inputStream, BlockingQueue<ByteBuffer> freeBuffers,
+                                  BlockingQueue<ByteBuffer> filledBuffers, AtomicReference<Throwable> failure,
+                                  CountDownLatch finished, CopyStats stats) {
+        try {
+            boolean isEndOfStream = false;
+
+            while (!isEndOfStream) {
+                ByteBuffer buffer = freeBuffers.take();
+                long readStartedAt = System.nanoTime();
+
+                while (buffer.hasRemaining() && !isEndOfStream) {
+                    isEndOfStream = read(inputStream, buffer) == -1;
+                }
+
+                stats.readNanos += System.nanoTime() - readStartedAt;
+                buffer.flip();
+
+                if (buffer.hasRemaining()) {
+                    filledBuffers.add(buffer);
+                } else {
+                    freeBuffers.add(buffer);
+                }
+            }
+        } catch (Throwable e) {
+            failure.set(e);
+        } finally {
+            filledBuffers.add(END_OF_STREAM);
+            finished.countDown();
+        }
+    }
+
+    private static int read(InputStream inputStream, ByteBuffer buffer) throws IOException {
+        int bytesRead = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+
+        if (bytesRead > 0) {
+            buffer.position(buffer.position() + bytesRead);
+        }
+
+        return bytesRead;
+    }
+
+    private static int write(OutputStream outputStream, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        buffer.position(buffer.limit());
+        return length;
+    }
+
+    private void releaseAll(BlockingQueue<ByteBuffer> buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer != END_OF_STREAM) {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private void record(CopyStats stats, long elapsedNanos) {
+        copiedBytes.increment(stats.bytes);
+        readStalls.record(stats.readNanos, TimeUnit.NANOSECONDS);
+        writeStalls.record(stats.writeNanos, TimeUnit.NANOSECONDS);
+
+        if (elapsedNanos > 0) {
+            throughput.record(stats.bytes * 1e9 / elapsedNanos);
+        }
+    }
+
+    private static class CopyStats {
+        private long bytes;
+        private long readNanos;
+        private long writeNanos;
     }
 }
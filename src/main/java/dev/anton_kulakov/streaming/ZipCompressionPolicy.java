@@ -0,0 +1,93 @@
+package dev.anton_kulakov.streaming;
+
+import dev.anton_kulakov.model.CompressionLevelEnum;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Component
+public class ZipCompressionPolicy {
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int MIN_SAMPLE_SIZE = 512;
+    private static final double INCOMPRESSIBLE_ENTROPY_BITS = 7.5;
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "gz", "tgz", "bz2", "xz", "zst", "7z", "rar", "jar", "war", "apk",
+            "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub",
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "avif",
+            "mp3", "aac", "ogg", "opus", "flac", "m4a",
+            "mp4", "m4v", "mkv", "mov", "avi", "webm", "wmv");
+
+    private static final Set<String> COMPRESSIBLE_MEDIA_SUBTYPES = Set.of("svg+xml", "bmp", "tiff", "x-wav", "wav");
+
+    public void prepareEntry(ZipOutputStream zipOut, ZipEntry entry, PrefetchedObject resource,
+                             CompressionLevelEnum compressionLevel) throws IOException {
+        if (compressionLevel != CompressionLevelEnum.NONE && isCompressible(resource)) {
+            entry.setMethod(ZipEntry.DEFLATED);
+            zipOut.setLevel(compressionLevel.getDeflaterLevel());
+            return;
+        }
+
+        if (resource.isBuffered()) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(resource.getSize());
+            entry.setCompressedSize(resource.getSize());
+            entry.setCrc(resource.getCrc());
+            return;
+        }
+
+        entry.setMethod(ZipEntry.DEFLATED);
+        zipOut.setLevel(Deflater.NO_COMPRESSION);
+    }
+
+    private boolean isCompressible(PrefetchedObject resource) throws IOException {
+        String objectName = resource.getObjectName();
+        int extensionStart = objectName.lastIndexOf('.');
+
+        if (extensionStart >= 0 && COMPRESSED_EXTENSIONS.contains(objectName.substring(extensionStart + 1).toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+
+        Optional<MediaType> mediaType = MediaTypeFactory.getMediaType(objectName);
+
+        if (mediaType.isPresent() && isCompressedMediaType(mediaType.get())) {
+            return false;
+        }
+
+        byte[] sample = resource.sample(SAMPLE_SIZE);
+        return sample.length < MIN_SAMPLE_SIZE || entropy(sample) < INCOMPRESSIBLE_ENTROPY_BITS;
+    }
+
+    private static boolean isCompressedMediaType(MediaType mediaType) {
+        String type = mediaType.getType();
+        boolean isMedia = "image".equals(type) || "audio".equals(type) || "video".equals(type);
+        return isMedia && !COMPRESSIBLE_MEDIA_SUBTYPES.contains(mediaType.getSubtype());
+    }
+
+    private static double entropy(byte[] sample) {
+        int[] frequencies = new int[256];
+
+        for (byte value : sample) {
+            frequencies[value & 0xFF]++;
+        }
+
+        double entropy = 0;
+
+        for (int frequency : frequencies) {
+            if (frequency > 0) {
+                double probability = (double) frequency / sample.length;
+                entropy -= probability * (Math.log(probability) / Math.log(2));
+            }
+        }
+
+        return entropy;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.anton_kulakov.util;
+
+import dev.anton_kulakov.exception.InvalidCursorException;
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceSortFieldEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class ListingCursor {
+    public static final long MISSING_SIZE = -1L;
+    public static final Instant MISSING_MODIFIED_AT = Instant.EPOCH;
+
+    private static final String SEPARATOR = "\n";
+
+    private final ResourceSortFieldEnum sortField;
+    private final Sort.Direction direction;
+    private final String sortKey;
+    private final String lastPath;
+
+    public static ListingCursor after(ResourceMetadata last, ResourceSortFieldEnum sortField, Sort.Direction direction) {
+        String sortKey = switch (sortField) {
+            case NAME -> "";
+            case SIZE -> String.valueOf(last.getSize() == null ? MISSING_SIZE : last.getSize());
+            case MODIFIED -> String.valueOf(last.getModifiedAt() == null ? MISSING_MODIFIED_AT : last.getModifiedAt());
+        };
+
+        return new ListingCursor(sortField, direction, sortKey, last.getPath());
+    }
+
+    public static ListingCursor decode(String cursor, ResourceSortFieldEnum sortField, Sort.Direction direction) {
+        String[] parts;
+
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("The cursor is malformed");
+        }
+
+        if (parts.length != 4 || !sortField.name().equals(parts[0]) || !direction.name().equals(parts[1])) {
+            throw new InvalidCursorException("The cursor doesn't match the requested sort order");
+        }
+
+        ListingCursor listingCursor = new ListingCursor(sortField, direction, parts[2], parts[3]);
+
+        try {
+            switch (sortField) {
+                case SIZE -> listingCursor.getSizeKey();
+                case MODIFIED -> listingCursor.getModifiedAtKey();
+                default -> {
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidCursorException("The cursor is malformed");
+        }
+
+        return listingCursor;
+    }
+
+    public String encode() {
+        String value = String.join(SEPARATOR, sortField.name(), direction.name(), sortKey, lastPath);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getSizeKey() {
+        return Long.parseLong(sortKey);
+    }
+
+    public Instant getModifiedAtKey() {
+        return Instant.parse(sortKey);
+    }
+}
@@ -85,6 +85,27 @@ public class PathProcessor {
         return userRootFolderTemplate.formatted(userId);
     }
 
+    public int getUserId(String path) {
+        int userIdStart = userRootFolderTemplate.indexOf("%s");
+        String rootFolderSuffix = userRootFolderTemplate.substring(userIdStart + 2);
+        int userIdEnd = path.indexOf(rootFolderSuffix, userIdStart);
+
+        return Integer.parseInt(path.substring(userIdStart, userIdEnd));
+    }
+
+    public boolean isUserPath(String path) {
+        try {
+            return path.startsWith(getUserRootFolder(getUserId(path)));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public String getParentPath(String path) {
+        String pathWithoutTrailingSlash = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        return pathWithoutTrailingSlash.substring(0, pathWithoutTrailingSlash.lastIndexOf('/') + 1);
+    }
+
     public String getPathWithoutLastFolder(String fullPath, String folderName) {
         int fullPathLength = fullPath.length();
         int folderNameLength = folderName.length();
@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset AntonKulakov:2
+--comment resumable upload sessions
+CREATE TABLE Upload_sessions
+(
+    id uuid PRIMARY KEY,
+    user_id int NOT NULL,
+    object_path varchar(1024) NOT NULL,
+    upload_id varchar(255) NOT NULL,
+    content_type varchar(255),
+    created_at timestamptz NOT NULL,
+    updated_at timestamptz NOT NULL
+);
+
+CREATE INDEX upload_sessions_updated_at_idx ON Upload_sessions (updated_at);
+--rollback drop table Upload_sessions;
@@ -0,0 +1,27 @@
+--liquibase formatted sql
+
+--changeset AntonKulakov:3
+--comment namespace index of stored files and folders
+CREATE TABLE Resources
+(
+    id bigint PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+    user_id int NOT NULL,
+    path varchar(1024) NOT NULL UNIQUE,
+    parent_path varchar(1024) NOT NULL,
+    name varchar(1024) NOT NULL,
+    size bigint,
+    etag varchar(255),
+    modified_at timestamptz,
+    type varchar(16) NOT NULL
+);
+
+CREATE INDEX resources_parent_path_idx ON Resources (parent_path, path);
+CREATE INDEX resources_path_pattern_idx ON Resources (path varchar_pattern_ops);
+CREATE INDEX resources_user_id_idx ON Resources (user_id);
+
+CREATE TABLE Resource_index_states
+(
+    user_id int PRIMARY KEY,
+    indexed_at timestamptz NOT NULL
+);
+--rollback drop table Resource_index_states; drop table Resources;
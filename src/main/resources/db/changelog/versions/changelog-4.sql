@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset AntonKulakov:4
+--comment trigram index for searching resources by name
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX resources_name_trgm_idx ON Resources USING gin (lower(name) gin_trgm_ops);
+--rollback drop index resources_name_trgm_idx;
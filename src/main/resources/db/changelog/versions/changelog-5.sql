@@ -0,0 +1,18 @@
+--liquibase formatted sql
+
+--changeset AntonKulakov:5
+--comment content-addressed blobs shared by deduplicated files
+CREATE TABLE Blobs
+(
+    hash varchar(64) PRIMARY KEY,
+    size bigint NOT NULL,
+    ref_count int NOT NULL,
+    unreferenced_at timestamptz
+);
+
+CREATE INDEX blobs_unreferenced_at_idx ON Blobs (unreferenced_at) WHERE ref_count = 0;
+
+ALTER TABLE Resources ADD COLUMN blob_hash varchar(64);
+
+CREATE INDEX resources_blob_hash_idx ON Resources (blob_hash) WHERE blob_hash IS NOT NULL;
+--rollback drop index resources_blob_hash_idx; alter table Resources drop column blob_hash; drop table Blobs;
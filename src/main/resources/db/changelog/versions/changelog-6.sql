@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset AntonKulakov:6
+--comment storage reserved by uploads that are being completed
+CREATE TABLE Storage_reservations
+(
+    id uuid PRIMARY KEY,
+    user_id int NOT NULL,
+    size bigint NOT NULL,
+    expires_at timestamptz NOT NULL
+);
+
+CREATE INDEX storage_reservations_user_id_idx ON Storage_reservations (user_id, expires_at);
+--rollback drop table Storage_reservations;
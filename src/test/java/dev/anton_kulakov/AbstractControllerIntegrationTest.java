@@ -7,6 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 public class AbstractControllerIntegrationTest extends BaseIntegrationTest {
@@ -34,8 +37,21 @@ public class AbstractControllerIntegrationTest extends BaseIntegrationTest {
 
     @SneakyThrows
     protected void uploadFile(MockMultipartFile file, String path) {
-        mvc.perform(MockMvcRequestBuilders.multipart("/api/resource")
+        performAsync(MockMvcRequestBuilders.multipart("/api/resource")
                 .file(file)
                 .param("path", path));
     }
+
+    protected ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+
+        while (mvcResult.getRequest().isAsyncStarted()) {
+            mvcResult.getAsyncResult();
+            resultActions = mvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+            mvcResult = resultActions.andReturn();
+        }
+
+        return resultActions;
+    }
 }
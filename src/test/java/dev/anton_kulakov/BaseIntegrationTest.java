@@ -1,6 +1,8 @@
 package dev.anton_kulakov;
 
+import dev.anton_kulakov.cache.MetadataCache;
 import dev.anton_kulakov.exception.MinioException;
+import dev.anton_kulakov.search.NameIndexCache;
 import io.minio.*;
 import io.minio.messages.DeleteError;
 import io.minio.messages.DeleteObject;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -41,6 +44,15 @@ public class BaseIntegrationTest {
     @Autowired
     private MinioClient minioClient;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NameIndexCache nameIndexCache;
+
+    @Autowired
+    private MetadataCache metadataCache;
+
     protected static final PostgreSQLContainer<?> postgres;
     protected static final GenericContainer<?> minio;
 
@@ -80,6 +92,10 @@ public class BaseIntegrationTest {
 
     @BeforeEach
     void cleanUpFileStorage() {
+        jdbcTemplate.execute("TRUNCATE TABLE Resources, Resource_index_states, Blobs, Storage_reservations");
+        nameIndexCache.invalidateAll();
+        metadataCache.invalidateAll();
+
         try {
             boolean isExists = minioClient.bucketExists(BucketExistsArgs.builder()
                     .bucket(injectedBucketName)
@@ -0,0 +1,174 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.model.ResourceTypeEnum;
+import dev.anton_kulakov.repository.ResourceMetadataRepository;
+import dev.anton_kulakov.service.MinioService;
+import dev.anton_kulakov.service.ResourceIndexService;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@TestPropertySource(properties = "minio.notifications.enabled=true")
+public class BucketNotificationListenerTest extends AbstractControllerIntegrationTest {
+    private static final Duration NOTIFICATION_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @MockitoSpyBean
+    private MinioService minioServiceSpy;
+
+    @Autowired
+    private ResourceIndexService resourceIndexService;
+
+    @Autowired
+    private ResourceMetadataRepository resourceMetadataRepository;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    private String userRootFolder;
+
+    @BeforeEach
+    void waitForSubscription() {
+        userRootFolder = pathProcessor.getUserRootFolder(1);
+        resourceIndexService.getAll(1);
+
+        // The listener subscribes asynchronously after startup, so retry until a notification makes it through
+        String warmUpPath = userRootFolder + "warm-up.txt";
+
+        for (int attempt = 0; attempt < 10 && !resourceIndexService.isFileExists(warmUpPath); attempt++) {
+            putObject(warmUpPath);
+            await(() -> resourceIndexService.isFileExists(warmUpPath), Duration.ofSeconds(1));
+        }
+
+        assertThat(resourceIndexService.isFileExists(warmUpPath)).isTrue();
+    }
+
+    @Test
+    void objectCreatedOutsideTheApplication_shouldBeIndexed() {
+        String path = userRootFolder + "external/created.txt";
+
+        putObject(path);
+
+        assertThat(await(() -> resourceIndexService.isFileExists(path), NOTIFICATION_TIMEOUT)).isTrue();
+        assertThat(resourceIndexService.isFolderExists(userRootFolder + "external/")).isTrue();
+    }
+
+    @Test
+    void objectRemovedOutsideTheApplication_shouldBeRemovedFromIndex() {
+        String path = userRootFolder + "removed.txt";
+        putObject(path);
+        assertThat(await(() -> resourceIndexService.isFileExists(path), NOTIFICATION_TIMEOUT)).isTrue();
+
+        removeObject(path);
+
+        assertThat(await(() -> !resourceIndexService.isFileExists(path), NOTIFICATION_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void folderMarkerRemovedOutsideTheApplication_shouldBeRemovedFromIndex() {
+        String folderPath = userRootFolder + "marker/";
+        putObject(folderPath);
+        assertThat(await(() -> resourceIndexService.isFolderExists(folderPath), NOTIFICATION_TIMEOUT)).isTrue();
+
+        removeObject(folderPath);
+
+        assertThat(await(() -> !resourceIndexService.isFolderExists(folderPath), NOTIFICATION_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void objectRewrittenWithTheSameContent_shouldNotBeStatted() {
+        String path = userRootFolder + "unchanged.txt";
+        String markerPath = userRootFolder + "after-unchanged.txt";
+        putObject(path);
+        assertThat(await(() -> resourceIndexService.isFileExists(path), NOTIFICATION_TIMEOUT)).isTrue();
+        clearInvocations(minioServiceSpy);
+
+        putObject(path);
+        putObject(markerPath);
+
+        // Notifications are applied in order, so once the marker is indexed the rewrite has been handled
+        assertThat(await(() -> resourceIndexService.isFileExists(markerPath), NOTIFICATION_TIMEOUT)).isTrue();
+        verify(minioServiceSpy, never()).getStatObject(path);
+    }
+
+    @Test
+    void reconcile_shouldOnlyApplyTheDifferenceWithTheBucket() {
+        String keptPath = userRootFolder + "kept/file.txt";
+        String stalePath = userRootFolder + "stale/file.txt";
+        putObject(keptPath);
+        assertThat(await(() -> resourceIndexService.isFileExists(keptPath), NOTIFICATION_TIMEOUT)).isTrue();
+        Long keptId = resourceMetadataRepository.findByPathAndType(keptPath, ResourceTypeEnum.FILE)
+                .map(ResourceMetadata::getId)
+                .orElseThrow();
+
+        resourceIndexService.addFile(stalePath, 1, "stale-etag", Instant.now());
+
+        resourceIndexService.reconcile(1);
+
+        List<String> indexedPaths = resourceMetadataRepository.findAllByUserIdAndParentPathNot(1, "").stream()
+                .map(ResourceMetadata::getPath)
+                .toList();
+
+        assertThat(indexedPaths).contains(keptPath, userRootFolder + "kept/");
+        assertThat(indexedPaths).doesNotContain(stalePath, userRootFolder + "stale/");
+        assertThat(resourceMetadataRepository.findByPathAndType(keptPath, ResourceTypeEnum.FILE))
+                .map(ResourceMetadata::getId)
+                .contains(keptId);
+        assertThat(resourceIndexService.isFileExists(stalePath)).isFalse();
+    }
+
+    @SneakyThrows
+    private void putObject(String path) {
+        byte[] content = ("Text from " + path).getBytes();
+
+        minioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(path)
+                .stream(new ByteArrayInputStream(content), content.length, -1)
+                .build());
+    }
+
+    @SneakyThrows
+    private void removeObject(String path) {
+        minioClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(path)
+                .build());
+    }
+
+    @SneakyThrows
+    private static boolean await(BooleanSupplier condition, Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+
+        while (Instant.now().isBefore(deadline)) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+
+            Thread.sleep(100);
+        }
+
+        return condition.getAsBoolean();
+    }
+}
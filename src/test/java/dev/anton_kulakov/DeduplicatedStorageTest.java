@@ -0,0 +1,79 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.service.ResourceIndexService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "storage.dedup.enabled=true")
+public class DeduplicatedStorageTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private ResourceIndexService resourceIndexService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_withIdenticalContent_shouldStoreSingleBlob() {
+        byte[] content = "Identical content".getBytes();
+        MockMultipartFile first = new MockMultipartFile("object", "first.txt", MediaType.TEXT_PLAIN_VALUE, content);
+        MockMultipartFile second = new MockMultipartFile("object", "second.txt", MediaType.TEXT_PLAIN_VALUE, content);
+
+        performAsync(multipart("/api/resource").file(first).param("path", ""))
+                .andExpect(status().isCreated());
+        performAsync(multipart("/api/resource").file(second).param("path", ""))
+                .andExpect(status().isCreated());
+
+        try (Stream<?> blobs = minioService.streamListObjects(".blobs/", true)) {
+            assertThat(blobs.count()).isEqualTo(1);
+        }
+
+        mvc.perform(MockMvcRequestBuilders.delete("/api/resource")
+                        .param("path", "first.txt"))
+                .andExpect(status().isNoContent());
+
+        performAsync(get("/api/resource/download")
+                        .param("path", "second.txt"))
+                .andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_losingThePathRace_shouldNotLeaveNewBlobBehind() {
+        String rootFolder = pathProcessor.getUserRootFolder(1);
+        MockMultipartFile file = new MockMultipartFile("object", "raced.txt", MediaType.TEXT_PLAIN_VALUE,
+                "Raced content".getBytes());
+
+        // Cache the miss, then let a concurrent upload win the path behind the cache's back
+        assertThat(resourceIndexService.isFileExists(rootFolder + "raced.txt")).isFalse();
+        jdbcTemplate.update("""
+                insert into resources (user_id, path, parent_path, name, size, type)
+                values (1, ?, ?, 'raced.txt', 0, 'FILE')
+                """, rootFolder + "raced.txt", rootFolder);
+
+        performAsync(multipart("/api/resource").file(file).param("path", ""))
+                .andExpect(status().isConflict());
+
+        try (Stream<?> blobs = minioService.streamListObjects(".blobs/", true)) {
+            assertThat(blobs.count()).isZero();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from blobs", Long.class)).isZero();
+    }
+}
@@ -0,0 +1,131 @@
+package dev.anton_kulakov;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import dev.anton_kulakov.concurrent.FanOutExecutor;
+import dev.anton_kulakov.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class FanOutExecutorTest extends BaseIntegrationTest {
+    private static final Duration SHORT_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration TEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Test
+    void forEach_pastTheDeadline_shouldThrowAndInterruptRunningTasks() {
+        CountDownLatch interruptedTasks = new CountDownLatch(2);
+
+        assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+            assertThatThrownBy(() -> fanOutExecutor.forEach(List.of(1, 2), 2, SHORT_TIMEOUT, item -> {
+                try {
+                    Thread.sleep(TEST_TIMEOUT.toMillis());
+                } catch (InterruptedException e) {
+                    interruptedTasks.countDown();
+                }
+            })).isInstanceOf(DeadlineExceededException.class);
+
+            assertThat(interruptedTasks.await(TEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        });
+    }
+
+    @Test
+    void forEach_pastTheDeadline_shouldReturnWithoutWaitingForTasksThatIgnoreInterruption() throws InterruptedException {
+        AtomicBoolean release = new AtomicBoolean();
+        CountDownLatch finishedTask = new CountDownLatch(1);
+
+        assertTimeoutPreemptively(TEST_TIMEOUT, () ->
+                assertThatThrownBy(() -> fanOutExecutor.forEach(List.of(1), 1, SHORT_TIMEOUT, item -> {
+                    while (!release.get()) {
+                        Thread.onSpinWait();
+                    }
+                    finishedTask.countDown();
+                })).isInstanceOf(DeadlineExceededException.class));
+
+        assertThat(finishedTask.getCount()).isEqualTo(1);
+        release.set(true);
+        assertThat(finishedTask.await(TEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    void forEach_withFailingTask_shouldCancelTheOthersAndRethrowAfterTheyFinish() {
+        AtomicInteger startedTasks = new AtomicInteger();
+        AtomicInteger runningTasks = new AtomicInteger();
+        AtomicInteger interruptedTasks = new AtomicInteger();
+
+        assertTimeoutPreemptively(TEST_TIMEOUT, () ->
+                assertThatThrownBy(() -> fanOutExecutor.forEach(IntStream.range(0, 100).boxed().toList(), 4, item -> {
+                    startedTasks.incrementAndGet();
+                    runningTasks.incrementAndGet();
+
+                    try {
+                        if (item == 2) {
+                            throw new IllegalStateException("Task " + item + " failed");
+                        }
+                        Thread.sleep(TEST_TIMEOUT.toMillis());
+                    } catch (InterruptedException e) {
+                        interruptedTasks.incrementAndGet();
+                    } finally {
+                        runningTasks.decrementAndGet();
+                    }
+                })).isInstanceOf(IllegalStateException.class).hasMessage("Task 2 failed"));
+
+        assertThat(runningTasks.get()).isZero();
+        assertThat(interruptedTasks.get()).isEqualTo(startedTasks.get() - 1);
+        assertThat(startedTasks.get()).isLessThan(100);
+    }
+
+    @Test
+    void map_shouldKeepTheOrderOfItems() {
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+        List<String> results = fanOutExecutor.map(items, 8, item -> {
+            try {
+                Thread.sleep((20 - item) * 5L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "item-" + item;
+        });
+
+        assertThat(results).isEqualTo(items.stream().map(item -> "item-" + item).toList());
+    }
+
+    @Test
+    void nestedForEach_shouldInheritTheEarlierDeadline() throws InterruptedException {
+        AtomicReference<Throwable> nestedFailure = new AtomicReference<>();
+        CountDownLatch finishedTask = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> fanOutExecutor.forEach(List.of(1), 1, SHORT_TIMEOUT, item -> {
+            try {
+                // Outlive the outer deadline, then start a nested fan-out with a much longer timeout of its own
+                Uninterruptibles.sleepUninterruptibly(SHORT_TIMEOUT.multipliedBy(2));
+                Thread.interrupted();
+
+                fanOutExecutor.forEach(List.of(1), 1, Duration.ofHours(1),
+                        nestedItem -> Uninterruptibles.sleepUninterruptibly(SHORT_TIMEOUT));
+            } catch (RuntimeException e) {
+                nestedFailure.set(e);
+            } finally {
+                finishedTask.countDown();
+            }
+        })).isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(finishedTask.await(TEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(nestedFailure.get()).isInstanceOf(DeadlineExceededException.class);
+    }
+}
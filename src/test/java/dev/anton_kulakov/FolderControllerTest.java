@@ -5,12 +5,16 @@ import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 public class FolderControllerTest extends AbstractControllerIntegrationTest {
@@ -73,6 +77,69 @@ public class FolderControllerTest extends AbstractControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void getFolderContent_withLimit_shouldReturnPagesUsingCursor() {
+        uploadFile(createFile("a.txt", "paged_folder/"), "");
+        uploadFile(createFile("b.txt", "paged_folder/"), "");
+        uploadFile(createFile("c.txt", "paged_folder/"), "");
+
+        String cursor = mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "paged_folder/")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].name", is("a.txt")))
+                .andExpect(jsonPath("$[1].name", is("b.txt")))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "paged_folder/")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].name", is("c.txt")));
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "paged_folder/")
+                        .param("limit", "2")
+                        .param("sort", "SIZE")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void getFolderContent_withNdjsonAccept_shouldStreamOneResourcePerLine() {
+        uploadFile(createFile("a.txt", "ndjson_folder/"), "");
+        uploadFile(createFile("b.txt", "ndjson_folder/nested_folder/"), "");
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "ndjson_folder/")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"a.txt\""));
+        assertTrue(lines[1].contains("\"name\":\"nested_folder/\""));
+    }
+
     @SneakyThrows
     @Test
     void getFolderContent_withUnauthorizedUser_shouldReturnStatus401() {
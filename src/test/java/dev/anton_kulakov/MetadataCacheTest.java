@@ -0,0 +1,76 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.cache.MetadataCache;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.exception.ResourceNotFoundException;
+import dev.anton_kulakov.service.AsyncStorageService;
+import dev.anton_kulakov.service.ResourceIndexService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetadataCacheTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private MetadataCache metadataCache;
+
+    @Autowired
+    private ResourceIndexService resourceIndexService;
+
+    @Autowired
+    private AsyncStorageService asyncStorageService;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void fileChanges_shouldInvalidateCachedExistenceAndStat() {
+        String fileName = System.currentTimeMillis() + "-cached-file.txt";
+        String fullPath = pathProcessor.getUserRootFolder(1) + fileName;
+
+        assertThat(resourceIndexService.isFileExists(fullPath)).isFalse();
+        assertThatThrownBy(() -> metadataCache.getStat(fullPath, asyncStorageService::getStatObject).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+
+        MockMultipartFile file = createFile(fileName, "");
+        uploadFile(file, "");
+
+        assertThat(resourceIndexService.isFileExists(fullPath)).isTrue();
+        assertThat(metadataCache.getStat(fullPath, asyncStorageService::getStatObject).join().size())
+                .isEqualTo(file.getSize());
+
+        mvc.perform(delete("/api/resource")
+                        .param("path", fileName))
+                .andExpect(status().isNoContent());
+
+        assertThat(resourceIndexService.isFileExists(fullPath)).isFalse();
+        assertThatThrownBy(() -> metadataCache.getStat(fullPath, asyncStorageService::getStatObject).join())
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void folderChanges_shouldInvalidateCachedFolderExistence() {
+        String folderPath = pathProcessor.getUserRootFolder(1) + "cached_folder/";
+
+        assertThat(resourceIndexService.isFolderExists(folderPath)).isFalse();
+
+        uploadFile(createFile(System.currentTimeMillis() + "-nested-file.txt", "cached_folder/"), "");
+
+        assertThat(resourceIndexService.isFolderExists(folderPath)).isTrue();
+
+        mvc.perform(delete("/api/resource")
+                        .param("path", "cached_folder/"))
+                .andExpect(status().isNoContent());
+
+        assertThat(resourceIndexService.isFolderExists(folderPath)).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.config.MultipartMinioClient;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "minio.upload.part-size=5MB",
+        "minio.upload.multipart-threshold=5MB"
+})
+public class MultipartUploadTest extends AbstractControllerIntegrationTest {
+    private static final int FILE_SIZE = 12 * 1024 * 1024 + 7;
+
+    @MockitoSpyBean
+    private MultipartMinioClient multipartMinioClient;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_largerThanPartSize_shouldRoundTripThroughParts() {
+        byte[] content = randomBytes(FILE_SIZE);
+
+        performAsync(multipart("/api/resource")
+                        .file(new MockMultipartFile("object", "large.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE, content))
+                        .param("path", ""))
+                .andExpect(status().isCreated());
+
+        verify(multipartMinioClient, atLeast(3))
+                .sendPart(anyString(), endsWith("large.bin"), anyString(), anyInt(), any(), anyInt());
+
+        byte[] downloaded = performAsync(get("/api/resource/download")
+                        .param("path", "large.bin"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertThat(downloaded).isEqualTo(content);
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_withFailingPart_shouldAbortTheUpload() {
+        doReturn(CompletableFuture.failedFuture(new IOException("Part rejected")))
+                .when(multipartMinioClient)
+                .sendPart(anyString(), endsWith("large.bin"), anyString(), eq(2), any(), anyInt());
+
+        performAsync(multipart("/api/resource")
+                        .file(new MockMultipartFile("object", "large.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                                randomBytes(FILE_SIZE)))
+                        .param("path", ""))
+                .andExpect(status().isInternalServerError());
+
+        verify(multipartMinioClient).cancelUpload(anyString(), endsWith("large.bin"), anyString());
+        assertThat(minioService.isFileExists(pathProcessor.getUserRootFolder(1) + "large.bin")).isFalse();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.service.MinioService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PartialMoveTest extends AbstractControllerIntegrationTest {
+    private static final String STUCK_FILE_NAME = "stuck.txt";
+
+    @MockitoSpyBean
+    private MinioService minioServiceSpy;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    @SuppressWarnings("unchecked")
+    void moveFolder_withUnremovableSource_shouldIndexDestinationAndRemainingSource() {
+        uploadFile(createFile("moved.txt", "move_source/"), "");
+        uploadFile(createFile(STUCK_FILE_NAME, "move_source/"), "");
+
+        doAnswer(invocation -> {
+            List<String> objectNames = invocation.getArgument(0);
+            List<String> stuck = objectNames.stream().filter(name -> name.endsWith(STUCK_FILE_NAME)).toList();
+
+            if (stuck.isEmpty()) {
+                return invocation.callRealMethod();
+            }
+
+            List<String> notRemoved = new ArrayList<>(minioServiceSpy.tryRemoveObjects(objectNames.stream()
+                    .filter(name -> !name.endsWith(STUCK_FILE_NAME))
+                    .toList()));
+            notRemoved.addAll(stuck);
+            return notRemoved;
+        }).when(minioServiceSpy).tryRemoveObjects(anyList());
+
+        mvc.perform(get("/api/resource/move")
+                        .param("from", "move_source/")
+                        .param("to", "move_target/"))
+                .andExpect(status().isInternalServerError());
+
+        mvc.perform(get("/api/directory")
+                        .param("path", "move_target/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)));
+
+        mvc.perform(get("/api/directory")
+                        .param("path", "move_source/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].name", is(STUCK_FILE_NAME)));
+    }
+}
@@ -0,0 +1,142 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.service.MinioService;
+import dev.anton_kulakov.streaming.ArchiveObject;
+import dev.anton_kulakov.streaming.PrefetchQueue;
+import dev.anton_kulakov.streaming.PrefetchedObject;
+import dev.anton_kulakov.streaming.StreamCopier;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrefetchQueueTest {
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+    private static final int PREFETCH_COUNT = 4;
+    private static final int BUFFER_SIZE = 400;
+    private static final int SMALL_SIZE = 50;
+    private static final int LARGE_SIZE = 1000;
+
+    private final MinioService minioService = mock(MinioService.class);
+    private final StreamCopier streamCopier = mock(StreamCopier.class);
+
+    @Test
+    void queue_shouldOpenAtMostOneStreamedObjectAhead() throws IOException {
+        List<ArchiveObject> objects = List.of(
+                object("small-1", SMALL_SIZE),
+                object("large-1", LARGE_SIZE),
+                object("large-2", LARGE_SIZE),
+                object("small-2", SMALL_SIZE));
+        stubContents(objects);
+
+        try (PrefetchQueue queue = new PrefetchQueue(minioService, DIRECT_EXECUTOR, objects, PREFETCH_COUNT, BUFFER_SIZE)) {
+            assertThat(queue.hasNext()).isTrue();
+            verify(minioService).getObject("small-1");
+            verify(minioService).getObject("large-1");
+            verify(minioService, never()).getObject("large-2");
+
+            consume(queue.next());
+
+            verify(minioService, never()).getObject("large-2");
+
+            consume(queue.next());
+
+            verify(minioService).getObject("large-2");
+            verify(minioService).getObject("small-2");
+        }
+    }
+
+    @Test
+    void queue_shouldReturnObjectsInOrderWithTheirContent() throws IOException {
+        List<ArchiveObject> objects = new ArrayList<>();
+
+        for (int i = 0; i < 12; i++) {
+            objects.add(object("object-" + i, i % 3 == 0 ? LARGE_SIZE : SMALL_SIZE + i));
+        }
+        objects.add(new ArchiveObject(null, "folder/", 0, null));
+        stubContents(objects);
+
+        List<String> objectNames = new ArrayList<>();
+
+        try (PrefetchQueue queue = new PrefetchQueue(minioService, DIRECT_EXECUTOR, objects, PREFETCH_COUNT, BUFFER_SIZE)) {
+            while (queue.hasNext()) {
+                try (PrefetchedObject prefetchedObject = queue.next()) {
+                    objectNames.add(prefetchedObject.getObjectName());
+
+                    if (prefetchedObject.isBuffered()) {
+                        ArchiveObject object = objects.get(objectNames.size() - 1);
+                        assertThat(prefetchedObject.sample(LARGE_SIZE)).isEqualTo(contentOf(object));
+                    }
+                }
+            }
+        }
+
+        assertThat(objectNames).isEqualTo(objects.stream().map(ArchiveObject::getPath).toList());
+    }
+
+    @Test
+    void queue_shouldDeferSmallObjectsUntilBufferedOnesAreReleased() throws IOException {
+        List<ArchiveObject> objects = List.of(
+                object("small-1", 90),
+                object("small-2", 90),
+                object("small-3", 90),
+                object("small-4", 90),
+                object("small-5", 90));
+        stubContents(objects);
+
+        try (PrefetchQueue queue = new PrefetchQueue(minioService, DIRECT_EXECUTOR, objects, PREFETCH_COUNT, BUFFER_SIZE)) {
+            assertThat(queue.hasNext()).isTrue();
+            verify(minioService).getObject("small-4");
+            verify(minioService, never()).getObject("small-5");
+
+            PrefetchedObject first = queue.next();
+            verify(minioService, never()).getObject("small-5");
+
+            first.close();
+            queue.hasNext();
+            verify(minioService).getObject("small-5");
+        }
+    }
+
+    private void consume(PrefetchedObject prefetchedObject) throws IOException {
+        try (prefetchedObject) {
+            prefetchedObject.writeTo(new ByteArrayOutputStream(), streamCopier);
+        }
+    }
+
+    private void stubContents(List<ArchiveObject> objects) {
+        when(minioService.getObject(anyString())).thenAnswer(invocation -> {
+            String objectKey = invocation.getArgument(0);
+            return objects.stream()
+                    .filter(object -> objectKey.equals(object.getObjectKey()))
+                    .findFirst()
+                    .map(object -> new ByteArrayInputStream(contentOf(object)))
+                    .orElseThrow();
+        });
+    }
+
+    private static ArchiveObject object(String name, int size) {
+        return new ArchiveObject(name, name, size, null);
+    }
+
+    private static byte[] contentOf(ArchiveObject object) {
+        byte[] content = new byte[(int) object.getSize()];
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (object.getPath().hashCode() + i);
+        }
+
+        return content;
+    }
+}
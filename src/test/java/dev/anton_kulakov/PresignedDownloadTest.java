@@ -0,0 +1,43 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.config.WithMockCustomUser;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "minio.download.mode=REDIRECT")
+public class PresignedDownloadTest extends AbstractControllerIntegrationTest {
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void download_inRedirectMode_shouldRedirectToPresignedUrl() {
+        MockMultipartFile file = new MockMultipartFile("object", "report.txt", MediaType.TEXT_PLAIN_VALUE, "Report".getBytes());
+
+        performAsync(multipart("/api/resource").file(file).param("path", ""))
+                .andExpect(status().isCreated());
+
+        performAsync(get("/api/resource/download")
+                        .param("path", "report.txt"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("X-Amz-Signature")))
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("response-content-disposition")));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void download_inRedirectMode_withMissingFile_shouldReturnNotFound() {
+        performAsync(get("/api/resource/download")
+                        .param("path", "missing.txt"))
+                .andExpect(status().isNotFound());
+    }
+}
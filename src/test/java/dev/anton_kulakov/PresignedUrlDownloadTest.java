@@ -0,0 +1,70 @@
+package dev.anton_kulakov;
+
+import com.jayway.jsonpath.JsonPath;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "minio.download.mode=PRESIGNED_URL",
+        "minio.download.presigned-url-expiry=2m"
+})
+public class PresignedUrlDownloadTest extends AbstractControllerIntegrationTest {
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void download_inPresignedUrlMode_shouldReturnTheUrlAsJson() {
+        byte[] content = "Report".getBytes();
+        MockMultipartFile file = new MockMultipartFile("object", "report.txt", MediaType.TEXT_PLAIN_VALUE, content);
+
+        performAsync(multipart("/api/resource").file(file).param("path", ""))
+                .andExpect(status().isCreated());
+
+        String responseBody = performAsync(get("/api/resource/download")
+                        .param("path", "report.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(jsonPath("$.url", containsString("X-Amz-Signature")))
+                .andExpect(jsonPath("$.url", containsString("response-content-disposition")))
+                .andExpect(jsonPath("$.expiresIn", is(120)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        HttpResponse<byte[]> storageResponse = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(JsonPath.read(responseBody, "$.url"))).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(storageResponse.statusCode()).isEqualTo(200);
+        assertThat(storageResponse.body()).isEqualTo(content);
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void download_inPresignedUrlMode_withMissingFile_shouldReturnNotFound() {
+        performAsync(get("/api/resource/download")
+                        .param("path", "missing.txt"))
+                .andExpect(status().isNotFound());
+    }
+}
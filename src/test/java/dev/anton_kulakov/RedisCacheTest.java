@@ -0,0 +1,194 @@
+package dev.anton_kulakov;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.event.RemoteResourceChangedEvent;
+import dev.anton_kulakov.event.ResourceChangeMessage;
+import dev.anton_kulakov.event.ResourceChangedEvent;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.testcontainers.containers.GenericContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(RedisCacheTest.ChangeRecorderConfig.class)
+@TestPropertySource(properties = {
+        "spring.autoconfigure.exclude=",
+        "cache.redis.enabled=true"
+})
+public class RedisCacheTest extends AbstractControllerIntegrationTest {
+    private static final String GENERATION_KEY = "listing:1:generation";
+    private static final String WARM_UP_MESSAGE = "warm-up";
+
+    protected static final GenericContainer<?> redis;
+
+    static {
+        redis = new GenericContainer<>("redis:7-alpine")
+                .withExposedPorts(6379);
+
+        redis.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (redis.isRunning()) redis.stop();
+        }));
+    }
+
+    @DynamicPropertySource
+    static void configureRedisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", redis::getFirstMappedPort);
+    }
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeRecorder recorder;
+
+    @Value("${cache.redis.channel}")
+    private String channel;
+
+    @BeforeEach
+    @SneakyThrows
+    void waitForSubscriptions() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        recorder.clear();
+
+        // The listener container subscribes asynchronously, so wait until a message makes it through
+        redisTemplate.convertAndSend(channel, WARM_UP_MESSAGE);
+        assertThat(recorder.messages.poll(10, TimeUnit.SECONDS)).isEqualTo(WARM_UP_MESSAGE);
+        recorder.clear();
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void localChange_shouldBumpGenerationAndServeFreshListing() {
+        String firstFileName = System.currentTimeMillis() + "-first-file.txt";
+        String secondFileName = System.currentTimeMillis() + "-second-file.txt";
+        uploadFile(createFile(firstFileName, "cached_folder/"), "");
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "cached_folder/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        long generationBefore = generation();
+        uploadFile(createFile(secondFileName, "cached_folder/"), "");
+
+        assertThat(generation()).isGreaterThan(generationBefore);
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/directory")
+                        .param("path", "cached_folder/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].name", hasItem(secondFileName)));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void localChange_shouldBeBroadcastButNotReplayedLocally() {
+        String fileName = System.currentTimeMillis() + "-broadcast-file.txt";
+        uploadFile(createFile(fileName, ""), "");
+
+        String published = recorder.messages.poll(5, TimeUnit.SECONDS);
+        assertThat(published).isNotNull();
+
+        ResourceChangeMessage message = objectMapper.readValue(published, ResourceChangeMessage.class);
+        assertThat(message.getOrigin()).isNotBlank();
+        assertThat(message.getUserId()).isEqualTo(1);
+
+        assertThat(recorder.remoteEvents.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @SneakyThrows
+    @Test
+    void remoteChange_shouldBeReplayedWithoutBumpingGenerationOrRebroadcasting() {
+        String path = pathProcessor.getUserRootFolder(1) + "remote-file.txt";
+        redisTemplate.opsForValue().set(GENERATION_KEY, "7");
+
+        ResourceChangeMessage message = new ResourceChangeMessage("other-node",
+                ResourceChangedEvent.ChangeType.FILE_ADDED, 1, path, 3L);
+        redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+
+        RemoteResourceChangedEvent event = recorder.remoteEvents.poll(5, TimeUnit.SECONDS);
+        assertThat(event).isNotNull();
+        assertThat(event.getChangeType()).isEqualTo(ResourceChangedEvent.ChangeType.FILE_ADDED);
+        assertThat(event.getUserId()).isEqualTo(1);
+        assertThat(event.getPath()).isEqualTo(path);
+        assertThat(event.getSize()).isEqualTo(3L);
+
+        assertThat(generation()).isEqualTo(7);
+
+        assertThat(recorder.messages.poll(5, TimeUnit.SECONDS)).contains("other-node");
+        assertThat(recorder.messages.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    private long generation() {
+        String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        return generation == null ? 0 : Long.parseLong(generation);
+    }
+
+    @TestConfiguration
+    static class ChangeRecorderConfig {
+        @Bean
+        ChangeRecorder changeRecorder(RedisMessageListenerContainer resourceChangeListenerContainer,
+                                      @Value("${cache.redis.channel}") String channel) {
+            ChangeRecorder recorder = new ChangeRecorder();
+            resourceChangeListenerContainer.addMessageListener(recorder, new ChannelTopic(channel));
+            return recorder;
+        }
+    }
+
+    static class ChangeRecorder implements MessageListener {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final BlockingQueue<RemoteResourceChangedEvent> remoteEvents = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            messages.add(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @EventListener
+        public void onRemoteResourceChanged(RemoteResourceChangedEvent event) {
+            remoteEvents.add(event);
+        }
+
+        void clear() {
+            messages.clear();
+            remoteEvents.clear();
+        }
+    }
+}
@@ -3,12 +3,25 @@ package dev.anton_kulakov;
 import dev.anton_kulakov.config.WithMockCustomUser;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import io.minio.messages.Item;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -23,7 +36,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         String uploadRequestPath = "/api/resource";
         MockMultipartFile file = createFile(fileName, "");
 
-        mvc.perform(multipart(uploadRequestPath)
+        performAsync(multipart(uploadRequestPath)
                         .file(file)
                         .param("path", ""))
                 .andExpect(status().isCreated())
@@ -45,7 +58,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile mainFolderFile = createFile(mainFolderFileName, "main_folder/");
         MockMultipartFile nestedFolderFile = createFile(nestedFolderFileName, "main_folder/nested_folder/");
 
-        mvc.perform(multipart("/api/resource")
+        performAsync(multipart("/api/resource")
                         .file(mainFolderFile)
                         .file(nestedFolderFile)
                         .param("path", ""))
@@ -69,7 +82,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
     @Test
     @WithMockCustomUser
     void upload_withEmptyRequestBody_shouldReturnStatus400() {
-        mvc.perform(multipart("/api/resource")
+        performAsync(multipart("/api/resource")
                         .param("path", ""))
                 .andExpect(status().isBadRequest());
     }
@@ -81,12 +94,32 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile testFile = createFile(System.currentTimeMillis() + "test-file.txt", "");
         uploadFile(testFile, "");
 
-        mvc.perform(multipart("/api/resource")
+        performAsync(multipart("/api/resource")
                         .file(testFile)
                         .param("path", ""))
                 .andExpect(status().isConflict());
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_atomicWithDuplicateFile_shouldRollBackUploadedFiles() {
+        MockMultipartFile existingFile = createFile(System.currentTimeMillis() + "-existing-file.txt", "");
+        MockMultipartFile newFile = createFile(System.currentTimeMillis() + "-new-file.txt", "");
+        uploadFile(existingFile, "");
+
+        performAsync(multipart("/api/resource")
+                        .file(existingFile)
+                        .file(newFile)
+                        .param("path", "")
+                        .param("atomic", "true"))
+                .andExpect(status().isConflict());
+
+        mvc.perform(get("/api/resource")
+                        .param("path", newFile.getOriginalFilename()))
+                .andExpect(status().isNotFound());
+    }
+
     @SneakyThrows
     @Test
     @WithMockCustomUser
@@ -96,13 +129,37 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         uploadFile(mainFolderFile, "");
         uploadFile(nestedFolderFile, "main_folder/");
 
-        mvc.perform(multipart("/api/resource")
+        performAsync(multipart("/api/resource")
                         .file(mainFolderFile)
                         .file(nestedFolderFile)
                         .param("path", "main_folder/"))
                 .andExpect(status().isConflict());
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void uploadFileStreaming_shouldReturnStatus201() {
+        String fileName = System.currentTimeMillis() + "-streamed-file.txt";
+        String fileContent = "Text from " + fileName;
+        String boundary = "streaming-upload-boundary";
+        String body = "--" + boundary + "\r\n" +
+                "Content-Disposition: form-data; name=\"object\"; filename=\"" + fileName + "\"\r\n" +
+                "Content-Type: text/plain\r\n\r\n" +
+                fileContent + "\r\n" +
+                "--" + boundary + "--\r\n";
+
+        mvc.perform(post("/api/resource/stream?path=")
+                        .contentType("multipart/form-data; boundary=" + boundary)
+                        .content(body.getBytes()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].path", is("")))
+                .andExpect(jsonPath("$[0].name", is(fileName)))
+                .andExpect(jsonPath("$[0].size", is(fileContent.length())))
+                .andExpect(jsonPath("$[0].type", is("FILE")));
+    }
+
     @SneakyThrows
     @Test
     void uploadFile_withUnauthorizedUser_shouldReturnStatus401() {
@@ -110,7 +167,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         String uploadRequestPath = "/api/resource";
         MockMultipartFile file = createFile(fileName, "");
 
-        mvc.perform(multipart(uploadRequestPath)
+        performAsync(multipart(uploadRequestPath)
                         .file(file)
                         .param("path", ""))
                 .andExpect(status().isUnauthorized());
@@ -124,7 +181,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile mainFolderFile = createFile(mainFolderFileName, "main_folder/");
         MockMultipartFile nestedFolderFile = createFile(nestedFolderFileName, "main_folder/nested_folder/");
 
-        mvc.perform(multipart("/api/resource")
+        performAsync(multipart("/api/resource")
                         .file(mainFolderFile)
                         .file(nestedFolderFile)
                         .param("path", ""))
@@ -360,12 +417,82 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile file = createFile(fileName, "");
         uploadFile(file, "");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", fileName))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM));
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadFile_withRangeHeader_shouldReturnStatus206() {
+        String fileName = System.currentTimeMillis() + "-test-file.txt";
+        MockMultipartFile file = createFile(fileName, "");
+        uploadFile(file, "");
+
+        performAsync(get("/api/resource/download")
+                        .param("path", fileName)
+                        .header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/" + file.getSize()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadFile_withUnsatisfiableRange_shouldReturnStatus416() {
+        String fileName = System.currentTimeMillis() + "-test-file.txt";
+        MockMultipartFile file = createFile(fileName, "");
+        uploadFile(file, "");
+
+        performAsync(get("/api/resource/download")
+                        .param("path", fileName)
+                        .header(HttpHeaders.RANGE, "bytes=100000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + file.getSize()));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadLargeFile_shouldReturnUploadedBytes() {
+        byte[] content = randomBytes(3 * 1024 * 1024 + 17);
+        uploadFile(new MockMultipartFile("object", "large.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE, content), "");
+
+        byte[] downloaded = performAsync(get("/api/resource/download")
+                        .param("path", "large.bin"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, content.length))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertThat(downloaded).isEqualTo(content);
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadLargeFile_withRangeHeader_shouldReturnRequestedBytes() {
+        byte[] content = randomBytes(3 * 1024 * 1024 + 17);
+        uploadFile(new MockMultipartFile("object", "large.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE, content), "");
+        int start = 100_003;
+        int end = 2_500_001;
+
+        byte[] downloaded = performAsync(get("/api/resource/download")
+                        .param("path", "large.bin")
+                        .header(HttpHeaders.RANGE, "bytes=%d-%d".formatted(start, end)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, end - start + 1))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertThat(downloaded).isEqualTo(Arrays.copyOfRange(content, start, end + 1));
+    }
+
     @SneakyThrows
     @Test
     @WithMockCustomUser
@@ -375,12 +502,68 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         uploadFile(mainFolderFile, "");
         uploadFile(nestedFolderFile, "main_folder/");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", "main_folder/"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/zip"));
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadFolder_withFastCompression_shouldReturnStatus200() {
+        MockMultipartFile file = createFile(System.currentTimeMillis() + "-fast-folder-file.txt", "fast_folder/");
+        uploadFile(file, "");
+
+        performAsync(get("/api/resource/download")
+                        .param("path", "fast_folder/")
+                        .param("compression", "FAST"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void downloadFolder_withoutCompression_shouldReturnContentLength() {
+        String fileName = System.currentTimeMillis() + "-stored-folder-file.txt";
+        MockMultipartFile file = createFile(fileName, "stored_folder/");
+        uploadFile(file, "");
+
+        MockHttpServletResponse response = performAsync(get("/api/resource/download")
+                        .param("path", "stored_folder/")
+                        .param("compression", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andReturn()
+                .getResponse();
+
+        byte[] archive = response.getContentAsByteArray();
+        assertThat(Long.parseLong(response.getHeader(HttpHeaders.CONTENT_LENGTH))).isEqualTo(archive.length);
+
+        Path archiveFile = Files.createTempFile("stored-folder", ".zip");
+
+        try {
+            Files.write(archiveFile, archive);
+
+            try (ZipFile zipFile = new ZipFile(archiveFile.toFile())) {
+                assertThat(zipFile.size()).isEqualTo(1);
+                ZipEntry entry = zipFile.getEntry(fileName);
+                assertThat(entry).isNotNull();
+
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    assertThat(inputStream.readAllBytes()).isEqualTo(file.getBytes());
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(file.getBytes());
+                assertThat(entry.getCrc()).isEqualTo(crc.getValue());
+            }
+        } finally {
+            Files.deleteIfExists(archiveFile);
+        }
+    }
+
     @SneakyThrows
     @Test
     @WithMockCustomUser
@@ -388,7 +571,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         mvc.perform(post("/api/directory")
                 .param("path", "new_empty_folder/"));
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", "new_empty_folder/"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/zip"));
@@ -403,7 +586,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile file = createFile(fileName, "");
         uploadFile(file, "");
 
-        mvc.perform(get("/api/resource/download"))
+        performAsync(get("/api/resource/download"))
                 .andExpect(status().isBadRequest());
     }
 
@@ -415,7 +598,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile file = createFile(fileName, "");
         uploadFile(file, "");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", fileName + "%%^&^))"))
                 .andExpect(status().isBadRequest());
     }
@@ -429,7 +612,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         uploadFile(mainFolderFile, "");
         uploadFile(nestedFolderFile, "main_folder/");
 
-        mvc.perform(get("/api/resource/download"))
+        performAsync(get("/api/resource/download"))
                 .andExpect(status().isBadRequest());
     }
 
@@ -442,7 +625,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         uploadFile(mainFolderFile, "");
         uploadFile(nestedFolderFile, "main_folder/");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", "%%^&^))main_folder/"))
                 .andExpect(status().isBadRequest());
     }
@@ -454,7 +637,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         MockMultipartFile file = createFile(fileName, "");
         uploadFile(file, "");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", fileName))
                 .andExpect(status().isUnauthorized());
     }
@@ -467,7 +650,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
         uploadFile(mainFolderFile, "");
         uploadFile(nestedFolderFile, "main_folder/");
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", "%%^&^))main_folder/"))
                 .andExpect(status().isUnauthorized());
     }
@@ -478,7 +661,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
     void downloadNonExistentFile_shouldReturnStatus404() {
         String fileName = System.currentTimeMillis() + "-test-file.txt";
 
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", fileName))
                 .andExpect(status().isNotFound());
     }
@@ -487,7 +670,7 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
     @Test
     @WithMockCustomUser
     void downloadNonExistentFolder_shouldReturnStatus404() {
-        mvc.perform(get("/api/resource/download")
+        performAsync(get("/api/resource/download")
                         .param("path", "main_folder/"))
                 .andExpect(status().isNotFound());
     }
@@ -550,6 +733,34 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void moveFolder_intoItsOwnSubfolder_shouldReturnStatus400() {
+        MockMultipartFile file = createFile(System.currentTimeMillis() + "-self-move-file.txt", "self_move/");
+        uploadFile(file, "");
+        long objectsBefore = countObjects("self_move/");
+
+        mvc.perform(get("/api/resource/move")
+                        .param("from", "self_move/")
+                        .param("to", "self_move/nested/"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(countObjects("self_move/")).isEqualTo(objectsBefore);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private long countObjects(String folder) {
+        try (Stream<Item> objects = minioService.streamListObjects(pathProcessor.getUserRootFolder(1) + folder, true)) {
+            return objects.count();
+        }
+    }
+
     @SneakyThrows
     @Test
     @WithMockCustomUser
@@ -839,6 +1050,23 @@ public class ResourceControllerTest extends AbstractControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].type", is("DIRECTORY")));
     }
 
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void searchFile_withPageSize_shouldReturnRankedPage() {
+        uploadFile(createFile("report.txt", ""), "");
+        uploadFile(createFile("old-report.txt", ""), "");
+        uploadFile(createFile("report-draft.txt", ""), "");
+
+        mvc.perform(get("/api/resource/search")
+                        .param("query", "report")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].name", is("report.txt")))
+                .andExpect(jsonPath("$[1].name", is("report-draft.txt")));
+    }
+
     @SneakyThrows
     @Test
     @WithMockCustomUser
@@ -0,0 +1,55 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.search.UserNameIndex;
+import dev.anton_kulakov.service.ResourceIndexService;
+import dev.anton_kulakov.util.PathProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchRankingTest extends BaseIntegrationTest {
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private ResourceIndexService resourceIndexService;
+
+    @Autowired
+    private PathProcessor pathProcessor;
+
+    @Test
+    void search_shouldRankTheSameInTheDatabaseAndInMemory() {
+        String root = pathProcessor.getUserRootFolder(1);
+        resourceIndexService.getAll(1);
+
+        for (String relativePath : List.of("b/report", "a/Report", "report-2024.txt", "annual report.txt", "myreport.txt",
+                "z-report.txt", "é-report.txt", "Z-report.txt", "reports/old/report.txt", "unrelated.txt")) {
+            resourceIndexService.addFile(root + relativePath, 1, "etag", Instant.now());
+        }
+
+        UserNameIndex memoryIndex = new UserNameIndex(pathProcessor, resourceIndexService.getAll(1));
+
+        for (String query : List.of("report", "Report", "rep", "re", "txt")) {
+            List<String> databasePages = new ArrayList<>();
+            List<String> memoryPages = new ArrayList<>();
+
+            for (int page = 0; page < 10; page++) {
+                databasePages.addAll(paths(resourceIndexService.search(1, query, page, PAGE_SIZE)));
+                memoryPages.addAll(paths(memoryIndex.search(query, (long) page * PAGE_SIZE, PAGE_SIZE)));
+            }
+
+            assertThat(memoryPages).as("results of '%s'", query).isNotEmpty().isEqualTo(databasePages);
+        }
+    }
+
+    private static List<String> paths(List<ResourceMetadata> resources) {
+        return resources.stream()
+                .map(ResourceMetadata::getPath)
+                .toList();
+    }
+}
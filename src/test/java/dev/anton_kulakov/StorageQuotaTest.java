@@ -0,0 +1,94 @@
+package dev.anton_kulakov;
+
+import com.jayway.jsonpath.JsonPath;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.service.StorageQuotaService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "storage.quota.per-user=1KB")
+public class StorageQuotaTest extends AbstractControllerIntegrationTest {
+    private static final String BOUNDARY = "streaming-upload-boundary";
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void uploadFileStreaming_overQuota_shouldReturnStatus413() {
+        mvc.perform(post("/api/resource/stream?path=")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipartBody("too-large.txt", 2048)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(minioService.isFileExists(pathProcessor.getUserRootFolder(1) + "too-large.txt")).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void uploadFilesStreaming_overQuotaInTotal_shouldRejectTheFileThatExceedsIt() {
+        byte[] body = (part("first.txt", 600) + part("second.txt", 600) + "--" + BOUNDARY + "--\r\n").getBytes();
+
+        mvc.perform(post("/api/resource/stream?path=")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(minioService.isFileExists(pathProcessor.getUserRootFolder(1) + "second.txt")).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void commitUploadSession_whileAnotherCommitHoldsTheSpace_shouldReturnStatus413() {
+        byte[] content = "x".repeat(600).getBytes();
+        String sessionBody = mvc.perform(post("/api/upload-session")
+                        .param("path", "session.txt"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String sessionId = JsonPath.read(sessionBody, "$.id");
+
+        mvc.perform(put("/api/upload-session/{id}/parts/{partNumber}", sessionId, 1)
+                        .header(HttpHeaders.CONTENT_LENGTH, content.length)
+                        .content(content))
+                .andExpect(status().isNoContent());
+
+        UUID reservationId = storageQuotaService.reserve(1, 600);
+
+        try {
+            mvc.perform(post("/api/upload-session/{id}/commit", sessionId))
+                    .andExpect(status().isPayloadTooLarge());
+        } finally {
+            storageQuotaService.release(reservationId);
+        }
+
+        assertThat(minioService.isFileExists(pathProcessor.getUserRootFolder(1) + "session.txt")).isFalse();
+        mvc.perform(post("/api/upload-session/{id}/commit", sessionId))
+                .andExpect(status().isCreated());
+    }
+
+    private static byte[] multipartBody(String fileName, int size) {
+        return (part(fileName, size) + "--" + BOUNDARY + "--\r\n").getBytes();
+    }
+
+    private static String part(String fileName, int size) {
+        return "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"object\"; filename=\"" + fileName + "\"\r\n" +
+                "Content-Type: text/plain\r\n\r\n" +
+                "x".repeat(size) + "\r\n";
+    }
+}
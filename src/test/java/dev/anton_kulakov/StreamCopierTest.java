@@ -0,0 +1,132 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.exception.BaseAppException;
+import dev.anton_kulakov.streaming.StreamCopier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class StreamCopierTest extends BaseIntegrationTest {
+    private static final int SIZE = 4 * 1024 * 1024;
+    private static final Duration COPY_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private StreamCopier streamCopier;
+
+    @Test
+    void copyStream_withFailingSource_shouldFailWithoutHanging() {
+        InputStream source = new GeneratedInputStream(SIZE / 2, SIZE);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        assertTimeoutPreemptively(COPY_TIMEOUT, () ->
+                assertThatThrownBy(() -> streamCopier.copyStream(source, target, SIZE))
+                        .isInstanceOf(BaseAppException.class));
+
+        assertThat(target.size()).isLessThanOrEqualTo(SIZE / 2);
+    }
+
+    @Test
+    void copyStream_withAbortedClient_shouldStopBlockedSource() {
+        BlockingInputStream source = new BlockingInputStream(1024 * 1024);
+        OutputStream abortingTarget = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertTimeoutPreemptively(COPY_TIMEOUT, () ->
+                assertThatThrownBy(() -> streamCopier.copyStream(source, abortingTarget, SIZE))
+                        .isInstanceOf(BaseAppException.class));
+
+        assertThat(source.closed.getCount()).isZero();
+    }
+
+    private static class GeneratedInputStream extends InputStream {
+        private final long failAfter;
+        private final long size;
+        private long position;
+
+        private GeneratedInputStream(long failAfter, long size) {
+            this.failAfter = failAfter;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= failAfter) {
+                throw new IOException("Connection reset");
+            }
+
+            if (position >= size) {
+                return -1;
+            }
+
+            int length = (int) Math.min(len, Math.min(failAfter, size) - position);
+            Arrays.fill(b, off, off + length, (byte) position);
+            position += length;
+            return length;
+        }
+    }
+
+    private static class BlockingInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private long available;
+
+        private BlockingInputStream(long available) {
+            this.available = available;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (available > 0) {
+                int length = (int) Math.min(len, available);
+                available -= length;
+                return length;
+            }
+
+            // Mimics a socket read, which ignores interrupts and only returns once the stream is closed
+            while (closed.getCount() > 0) {
+                try {
+                    closed.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+
+            throw new IOException("Stream closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.config.WithMockCustomUser;
+import io.minio.messages.Item;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "minio.upload.files-timeout=1ms",
+        "minio.upload.files-concurrency=1",
+        "spring.mvc.async.request-timeout=1m"
+})
+public class UploadDeadlineTest extends AbstractControllerIntegrationTest {
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void upload_atomicPastDeadline_shouldRemoveUploadsFinishingAfterRollback() {
+        MockMultipartFile firstFile = createFile("first-file.txt", "");
+        MockMultipartFile secondFile = createFile("second-file.txt", "");
+        MockMultipartFile thirdFile = createFile("third-file.txt", "");
+
+        performAsync(multipart("/api/resource")
+                        .file(firstFile)
+                        .file(secondFile)
+                        .file(thirdFile)
+                        .param("path", "")
+                        .param("atomic", "true"))
+                .andExpect(status().isGatewayTimeout());
+
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+
+        while (countUserObjects() > 0 && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+
+        assertThat(countUserObjects()).isZero();
+    }
+
+    private long countUserObjects() {
+        try (Stream<Item> objects = minioService.streamListObjects(pathProcessor.getUserRootFolder(1), true)) {
+            return objects.filter(object -> !object.objectName().endsWith("/")).count();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dev.anton_kulakov;
+
+import com.jayway.jsonpath.JsonPath;
+import dev.anton_kulakov.config.WithMockCustomUser;
+import dev.anton_kulakov.repository.UploadSessionRepository;
+import dev.anton_kulakov.service.UploadSessionService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class UploadSessionControllerTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void resumableUpload_shouldReturnStatus201() {
+        String fileName = System.currentTimeMillis() + "-resumable-file.txt";
+        byte[] content = ("Text from " + fileName).getBytes();
+
+        String responseBody = mvc.perform(post("/api/upload-session")
+                        .param("path", fileName))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.path", is(fileName)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String sessionId = JsonPath.read(responseBody, "$.id");
+
+        mvc.perform(put("/api/upload-session/{id}/parts/{partNumber}", sessionId, 1)
+                        .header(HttpHeaders.CONTENT_LENGTH, content.length)
+                        .content(content))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/api/upload-session/{id}", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uploadedParts.length()", is(1)));
+
+        mvc.perform(post("/api/upload-session/{id}/commit", sessionId))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.path", is("")))
+                .andExpect(jsonPath("$.name", is(fileName)))
+                .andExpect(jsonPath("$.size", is(content.length)))
+                .andExpect(jsonPath("$.type", is("FILE")));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void presignedUpload_shouldReturnStatus201() {
+        String fileName = System.currentTimeMillis() + "-presigned-file.txt";
+        byte[] content = ("Text from " + fileName).getBytes();
+
+        String sessionBody = mvc.perform(post("/api/upload-session")
+                        .param("path", fileName))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String sessionId = JsonPath.read(sessionBody, "$.id");
+
+        String urlBody = mvc.perform(get("/api/upload-session/{id}/parts/{partNumber}/presigned-url", sessionId, 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        HttpResponse<Void> storageResponse = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(JsonPath.read(urlBody, "$.url")))
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(content))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(storageResponse.statusCode()).isEqualTo(200);
+
+        mvc.perform(post("/api/upload-session/{id}/commit", sessionId))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name", is(fileName)))
+                .andExpect(jsonPath("$.size", is(content.length)));
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void removeStaleSessions_shouldAbortExpiredSessions() {
+        String sessionBody = mvc.perform(post("/api/upload-session")
+                        .param("path", System.currentTimeMillis() + "-stale-file.txt"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        UUID sessionId = UUID.fromString(JsonPath.read(sessionBody, "$.id"));
+        uploadSessionRepository.updateUpdatedAt(sessionId, Instant.now().minus(Duration.ofDays(7)));
+
+        uploadSessionService.removeStaleSessions();
+
+        assertThat(uploadSessionRepository.findById(sessionId)).isEmpty();
+        mvc.perform(get("/api/upload-session/{id}", sessionId))
+                .andExpect(status().isNotFound());
+    }
+
+    @SneakyThrows
+    @Test
+    @WithMockCustomUser
+    void commitNonExistentSession_shouldReturnStatus404() {
+        mvc.perform(post("/api/upload-session/{id}/commit", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @SneakyThrows
+    @Test
+    void createSession_withUnauthorizedUser_shouldReturnStatus401() {
+        mvc.perform(post("/api/upload-session")
+                        .param("path", "file.txt"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,96 @@
+package dev.anton_kulakov;
+
+import dev.anton_kulakov.model.ResourceMetadata;
+import dev.anton_kulakov.search.UserNameIndex;
+import dev.anton_kulakov.util.PathProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserNameIndexTest {
+    private static final String ROOT = "user-1-files/";
+
+    private final PathProcessor pathProcessor = new PathProcessor("user-%s-files/");
+
+    @Test
+    void search_shouldReturnOnlyNamesContainingTheQuery() {
+        UserNameIndex index = createIndex("docs/report.txt", "docs/portrait.png", "docs/repo.md", "import.csv");
+
+        assertThat(paths(index.search("port", 0, 10)))
+                .containsExactly(ROOT + "docs/portrait.png", ROOT + "docs/report.txt", ROOT + "import.csv");
+        assertThat(index.search("report.txt", 0, 10)).hasSize(1);
+        assertThat(index.search("xyz", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_withQueryShorterThanAGram_shouldScanAllNames() {
+        UserNameIndex index = createIndex("a.txt", "b.txt", "docs/ab.md");
+
+        assertThat(paths(index.search("ab", 0, 10))).containsExactly(ROOT + "docs/ab.md");
+        assertThat(paths(index.search("b", 0, 10))).containsExactly(ROOT + "b.txt", ROOT + "docs/ab.md");
+    }
+
+    @Test
+    void search_shouldRankExactThenPrefixThenSimilarityThenPath() {
+        UserNameIndex index = createIndex("b/report", "a/report", "report-2024.txt", "annual report.txt", "myreport.txt");
+
+        assertThat(paths(index.search("report", 0, 10))).containsExactly(
+                ROOT + "a/report",
+                ROOT + "b/report",
+                ROOT + "report-2024.txt",
+                ROOT + "annual report.txt",
+                ROOT + "myreport.txt");
+    }
+
+    @Test
+    void search_shouldApplyOffsetAndLimitAfterRanking() {
+        UserNameIndex index = createIndex(IntStream.range(0, 10)
+                .mapToObj(i -> "file-" + i + ".txt")
+                .toArray(String[]::new));
+
+        List<String> allPaths = paths(index.search("file", 0, 10));
+
+        assertThat(paths(index.search("file", 3, 4))).isEqualTo(allPaths.subList(3, 7));
+        assertThat(paths(index.search("file", 8, 4))).isEqualTo(allPaths.subList(8, 10));
+        assertThat(index.search("file", 10, 4)).isEmpty();
+    }
+
+    @Test
+    void remove_pastHalfOfTheEntries_shouldCompactWithoutLosingTheRest() {
+        UserNameIndex index = createIndex(IntStream.range(0, 10)
+                .mapToObj(i -> "file-" + i + ".txt")
+                .toArray(String[]::new));
+        long bytesBefore = index.getEstimatedBytes();
+
+        for (int i = 0; i < 6; i++) {
+            index.remove(ROOT + "file-" + i + ".txt");
+        }
+
+        assertThat(paths(index.search("file", 0, 10))).containsExactly(
+                ROOT + "file-6.txt", ROOT + "file-7.txt", ROOT + "file-8.txt", ROOT + "file-9.txt");
+        assertThat(index.getEstimatedBytes()).isLessThan(bytesBefore);
+
+        index.addFile(ROOT + "file-0.txt", 1);
+
+        assertThat(paths(index.search("file-0", 0, 10))).containsExactly(ROOT + "file-0.txt");
+    }
+
+    private UserNameIndex createIndex(String... relativePaths) {
+        UserNameIndex index = new UserNameIndex(pathProcessor, List.of());
+
+        for (String relativePath : relativePaths) {
+            index.addFile(ROOT + relativePath, 1);
+        }
+
+        return index;
+    }
+
+    private static List<String> paths(List<ResourceMetadata> resources) {
+        return resources.stream()
+                .map(ResourceMetadata::getPath)
+                .toList();
+    }
+}